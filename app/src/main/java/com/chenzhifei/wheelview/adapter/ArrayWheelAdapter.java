@@ -0,0 +1,34 @@
+package com.chenzhifei.wheelview.adapter;
+
+import android.graphics.Paint;
+
+/**
+ * 以String[]为数据源的WheelAdapter，直接引用传入的数组，不做拷贝。
+ */
+
+public class ArrayWheelAdapter implements WheelAdapter {
+
+    private final String[] dataArr;
+
+    public ArrayWheelAdapter(String[] dataArr) {
+        if (null == dataArr) {
+            throw new NullPointerException("dataArr can not be a null");
+        }
+        this.dataArr = dataArr;
+    }
+
+    @Override
+    public int getCount() {
+        return dataArr.length;
+    }
+
+    @Override
+    public String getItem(int index) {
+        return dataArr[index];
+    }
+
+    @Override
+    public int getItemWidth(Paint paint) {
+        return -1;
+    }
+}
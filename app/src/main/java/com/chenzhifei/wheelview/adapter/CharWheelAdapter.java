@@ -0,0 +1,21 @@
+package com.chenzhifei.wheelview.adapter;
+
+/**
+ * 可以把item直接写入char[]的WheelAdapter。
+ * WheelView绘制时复用同一个char[]，用Canvas.drawText(char[], ...)绘制，滑动过程中不再创建String。
+ */
+
+public interface CharWheelAdapter extends WheelAdapter {
+
+    /**
+     * @return 所有item中最多的字符个数，WheelView按这个长度分配缓冲区
+     */
+    int getMaxItemLength();
+
+    /**
+     * @param index  0 ~ getCount()-1
+     * @param buffer 长度至少为getMaxItemLength()
+     * @return 写入buffer的字符个数，从buffer[0]开始
+     */
+    int getItemChars(int index, char[] buffer);
+}
@@ -0,0 +1,27 @@
+package com.chenzhifei.wheelview.adapter;
+
+import java.util.HashMap;
+
+/**
+ * 哈希索引：创建时遍历一次数据源，之后O(1)查找。数据无序时使用。
+ * 重复的值返回第一次出现的索引。数据源变化后需要重新创建。
+ */
+
+public class HashValueIndex implements ValueIndex {
+
+    private final HashMap<String, Integer> indexes;
+
+    public HashValueIndex(WheelAdapter adapter) {
+        int count = adapter.getCount();
+        indexes = new HashMap<>(count * 4 / 3 + 1);
+        for (int i = count - 1; i >= 0; i--) { // the first one wins.
+            indexes.put(adapter.getItem(i), i);
+        }
+    }
+
+    @Override
+    public int indexOf(String value) {
+        Integer index = indexes.get(value);
+        return index == null ? -1 : index;
+    }
+}
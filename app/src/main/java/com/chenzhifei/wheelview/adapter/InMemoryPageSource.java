@@ -0,0 +1,38 @@
+package com.chenzhifei.wheelview.adapter;
+
+/**
+ * 内存中的PageSource，可以模拟加载延迟，用于测试、演示PagedWheelAdapter。
+ */
+
+public class InMemoryPageSource implements PagedWheelAdapter.PageSource {
+
+    private final String[] dataArr;
+    private final long loadDelayMs;
+
+    /**
+     * @param loadDelayMs 每次加载一页的模拟延迟
+     */
+    public InMemoryPageSource(String[] dataArr, long loadDelayMs) {
+        this.dataArr = dataArr;
+        this.loadDelayMs = loadDelayMs;
+    }
+
+    @Override
+    public int getCount() {
+        return dataArr.length;
+    }
+
+    @Override
+    public String[] loadPage(int start, int count) {
+        if (loadDelayMs > 0) {
+            try {
+                Thread.sleep(loadDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        String[] page = new String[count];
+        System.arraycopy(dataArr, start, page, 0, count);
+        return page;
+    }
+}
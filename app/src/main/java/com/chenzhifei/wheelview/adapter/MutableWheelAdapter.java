@@ -0,0 +1,178 @@
+package com.chenzhifei.wheelview.adapter;
+
+import android.graphics.Paint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * 可以局部修改的WheelAdapter：插入、删除、替换、移动一段item后通知WheelView，
+ * WheelView只测量变化的item，并保持当前居中的item不变，进行中的滑动也会继续。
+ * 可以同时设置给多个WheelView，每个WheelView都会收到修改的通知。
+ * 所有方法都只能在主线程调用，不能与MEASURE_MODE_ESTIMATE、prepareDataAsync一起使用。
+ */
+
+public class MutableWheelAdapter implements WheelAdapter {
+
+    public interface OnItemRangeChangedListener {
+        /**
+         * @param start 插入的第一个item现在的索引
+         */
+        void onItemRangeInserted(int start, int count);
+
+        /**
+         * @param start 删除的第一个item原来的索引
+         */
+        void onItemRangeRemoved(int start, int count);
+
+        /**
+         * item的内容变化，位置不变。
+         */
+        void onItemRangeChanged(int start, int count);
+
+        /**
+         * 一个item从fromIndex移动到toIndex，之间的item依次前移或后移一个位置。
+         */
+        void onItemMoved(int fromIndex, int toIndex);
+    }
+
+    private final ArrayList<String> items;
+    private final ArrayList<OnItemRangeChangedListener> listeners = new ArrayList<>();
+
+    public MutableWheelAdapter() {
+        items = new ArrayList<>();
+    }
+
+    /**
+     * @param dataArr 初始数据，会拷贝一份
+     */
+    public MutableWheelAdapter(String[] dataArr) {
+        if (null == dataArr) {
+            throw new NullPointerException("dataArr can not be a null");
+        }
+        items = new ArrayList<>(Arrays.asList(dataArr));
+    }
+
+    /**
+     * 已添加的不会重复添加。
+     */
+    public void addOnItemRangeChangedListener(OnItemRangeChangedListener l) {
+        if (!listeners.contains(l)) {
+            listeners.add(l);
+        }
+    }
+
+    public void removeOnItemRangeChangedListener(OnItemRangeChangedListener l) {
+        listeners.remove(l);
+    }
+
+    @Override
+    public int getCount() {
+        return items.size();
+    }
+
+    @Override
+    public String getItem(int index) {
+        return items.get(index);
+    }
+
+    @Override
+    public int getItemWidth(Paint paint) {
+        return -1;
+    }
+
+    /**
+     * 在index位置插入item，原来index及之后的item后移。
+     * @param index 0 ~ getCount()
+     */
+    public void insert(int index, String item) {
+        insert(index, new String[]{item});
+    }
+
+    public void insert(int index, String[] newItems) {
+        if (index < 0 || index > items.size()) {
+            throw new IndexOutOfBoundsException("index: " + index + ", count: " + items.size());
+        }
+        if (newItems.length == 0) {
+            return;
+        }
+        items.addAll(index, Arrays.asList(newItems));
+        for (OnItemRangeChangedListener l : snapshotListeners()) {
+            if (listeners.contains(l)) { // not removed by an earlier callback
+                l.onItemRangeInserted(index, newItems.length);
+            }
+        }
+    }
+
+    /**
+     * 删除从start开始的count个item。
+     */
+    public void remove(int start, int count) {
+        checkRange(start, count);
+        if (count == 0) {
+            return;
+        }
+        items.subList(start, start + count).clear();
+        for (OnItemRangeChangedListener l : snapshotListeners()) {
+            if (listeners.contains(l)) { // not removed by an earlier callback
+                l.onItemRangeRemoved(start, count);
+            }
+        }
+    }
+
+    public void replace(int index, String item) {
+        replace(index, new String[]{item});
+    }
+
+    /**
+     * 从start开始替换newItems.length个item。
+     */
+    public void replace(int start, String[] newItems) {
+        checkRange(start, newItems.length);
+        if (newItems.length == 0) {
+            return;
+        }
+        for (int i = 0; i < newItems.length; i++) {
+            items.set(start + i, newItems[i]);
+        }
+        for (OnItemRangeChangedListener l : snapshotListeners()) {
+            if (listeners.contains(l)) { // not removed by an earlier callback
+                l.onItemRangeChanged(start, newItems.length);
+            }
+        }
+    }
+
+    /**
+     * 把fromIndex位置的item移动到toIndex。
+     */
+    public void move(int fromIndex, int toIndex) {
+        checkRange(fromIndex, 1);
+        checkRange(toIndex, 1);
+        if (fromIndex == toIndex) {
+            return;
+        }
+        if (fromIndex < toIndex) {
+            Collections.rotate(items.subList(fromIndex, toIndex + 1), -1);
+        } else {
+            Collections.rotate(items.subList(toIndex, fromIndex + 1), 1);
+        }
+        for (OnItemRangeChangedListener l : snapshotListeners()) {
+            if (listeners.contains(l)) { // not removed by an earlier callback
+                l.onItemMoved(fromIndex, toIndex);
+            }
+        }
+    }
+
+    // listeners may be added or removed in the callbacks, e.g. a WheelView switching adapters.
+    private OnItemRangeChangedListener[] snapshotListeners() {
+        return listeners.toArray(new OnItemRangeChangedListener[listeners.size()]);
+    }
+
+    private void checkRange(int start, int count) {
+        if (start < 0 || count < 0 || start + count > items.size()) {
+            throw new IndexOutOfBoundsException("start: " + start + ", count: " + count
+                    + ", size: " + items.size());
+        }
+    }
+}
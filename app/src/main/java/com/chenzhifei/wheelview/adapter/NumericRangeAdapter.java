@@ -0,0 +1,153 @@
+package com.chenzhifei.wheelview.adapter;
+
+import android.graphics.Paint;
+
+/**
+ * 数字范围的数据源：start, start+step, ... 到end，如年份1900 ~ 2100、分钟00 ~ 59。
+ * 不创建数据数组，item在绘制时直接格式化到WheelView的char[]中；
+ * 最大宽度按位数 * 最宽数字的宽度计算，不用逐个测量。
+ */
+
+public class NumericRangeAdapter implements CharWheelAdapter {
+
+    private static final char[] DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9'};
+
+    private final int start;
+    private final int step;
+    private final int count;
+    private final int minDigits;
+    private final String prefix;
+    private final String suffix;
+    private final int maxDigits;   // digits of the longest number, including zero padding
+    private final boolean hasNegative;
+
+    public NumericRangeAdapter(int start, int end, int step) {
+        this(start, end, step, 0, null, null);
+    }
+
+    /**
+     * @param start     第一个数字
+     * @param end       最后一个数字，(end-start)不是step的整数倍时，最后一个item为不超过end的数字
+     * @param step      相邻两个item的差，不能为0，start大于end时需要为负数
+     * @param minDigits 最少的位数，不足时在前面补0，如分钟为2。0表示不补
+     * @param prefix    数字前的文字，可为null
+     * @param suffix    数字后的文字，如"年"，可为null
+     */
+    public NumericRangeAdapter(int start, int end, int step, int minDigits,
+                               String prefix, String suffix) {
+        if (step == 0) {
+            throw new IllegalArgumentException("step can not be 0");
+        }
+        long span = (long) end - start;
+        if (span != 0 && (span > 0) != (step > 0)) {
+            throw new IllegalArgumentException("step goes away from end");
+        }
+        this.start = start;
+        this.step = step;
+        this.count = (int) (span / step + 1);
+        this.minDigits = Math.max(0, minDigits);
+        this.prefix = prefix == null ? "" : prefix;
+        this.suffix = suffix == null ? "" : suffix;
+
+        long last = valueOf(count - 1);
+        // |value| is the biggest at one of the two ends.
+        this.maxDigits = Math.max(this.minDigits, Math.max(digitsOf(start), digitsOf(last)));
+        this.hasNegative = start < 0 || last < 0;
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return index位置的数字
+     */
+    public long getValue(int index) {
+        return valueOf(index);
+    }
+
+    /**
+     * @return value所在的索引，不在范围内或不在step上时返回-1
+     */
+    public int indexOfValue(long value) {
+        long offset = value - start;
+        if (offset % step != 0) {
+            return -1;
+        }
+        long index = offset / step;
+        return index < 0 || index >= count ? -1 : (int) index;
+    }
+
+    /**
+     * 会创建String，只在需要String时使用(如StateValueListener)，绘制时使用getItemChars。
+     */
+    @Override
+    public String getItem(int index) {
+        char[] buffer = new char[getMaxItemLength()];
+        return new String(buffer, 0, getItemChars(index, buffer));
+    }
+
+    @Override
+    public int getMaxItemLength() {
+        return prefix.length() + (hasNegative ? 1 : 0) + maxDigits + suffix.length();
+    }
+
+    @Override
+    public int getItemChars(int index, char[] buffer) {
+        long value = valueOf(index);
+        int length = 0;
+        prefix.getChars(0, prefix.length(), buffer, 0);
+        length += prefix.length();
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+
+        int digits = Math.max(minDigits, digitsOf(value));
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = DIGITS[(int) (value % 10)];
+            value /= 10;
+        }
+        length += digits;
+
+        suffix.getChars(0, suffix.length(), buffer, length);
+        return length + suffix.length();
+    }
+
+    /**
+     * 按最多的位数和最宽的数字计算，不逐个测量。
+     */
+    @Override
+    public int getItemWidth(Paint paint) {
+        float maxDigitWidth = 0f;
+        for (int i = 0; i < DIGITS.length; i++) {
+            maxDigitWidth = Math.max(maxDigitWidth, paint.measureText(DIGITS, i, 1));
+        }
+        float width = maxDigits * maxDigitWidth;
+        if (hasNegative) {
+            width += paint.measureText("-");
+        }
+        if (prefix.length() > 0) {
+            width += paint.measureText(prefix);
+        }
+        if (suffix.length() > 0) {
+            width += paint.measureText(suffix);
+        }
+        return (int) Math.ceil(width);
+    }
+
+    private long valueOf(int index) {
+        return start + (long) index * step;
+    }
+
+    private static int digitsOf(long value) {
+        value = Math.abs(value);
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,300 @@
+package com.chenzhifei.wheelview.adapter;
+
+import android.graphics.Paint;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 分页加载的WheelAdapter，适合数据量很大、需要从数据库等读取的数据源。
+ * 只在后台线程加载居中位置附近的页，并根据滑动方向和速度提前加载；
+ * 未加载的item显示为占位符，页加载完成后通知WheelView刷新。
+ * 除PageSource.loadPage外，所有方法都在主线程调用。
+ */
+
+public class PagedWheelAdapter implements WheelAdapter {
+
+    public interface PageSource {
+        /**
+         * @return 数据的总个数
+         */
+        int getCount();
+
+        /**
+         * 在后台线程调用。
+         * @param start 第一个item的索引
+         * @param count item的个数
+         * @return 加载的item，长度为count
+         */
+        String[] loadPage(int start, int count);
+    }
+
+    public interface OnPageLoadedListener {
+        /**
+         * 一页加载完成，在主线程调用。
+         * @param start 这一页第一个item的索引
+         * @param count 这一页item的个数
+         */
+        void onPageLoaded(int start, int count);
+    }
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int DEFAULT_MAX_PAGES = 16; // pages kept in memory
+    private static final String DEFAULT_PLACEHOLDER = "...";
+
+    private static final Executor defaultExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "WheelView-page");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    private final PageSource source;
+    private final int count;
+    private final int pageSize;
+    private final int maxPages;
+    private final Executor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final String[][] pages;
+    private final boolean[] loading;
+    private final long[] pageLastUse;
+    private long useCounter = 0;
+    private int loadedPages = 0;
+
+    // the page window wanted now: firstPage << 32 | lastPage, firstPage > lastPage wraps around.
+    // pages out of it are skipped when their turn comes.
+    private volatile long window = 0;
+
+    private String placeholder = DEFAULT_PLACEHOLDER;
+    private String itemWidthTemplate;
+    private OnPageLoadedListener onPageLoadedListener;
+
+    public PagedWheelAdapter(PageSource source) {
+        this(source, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES, defaultExecutor);
+    }
+
+    /**
+     * @param pageSize 每页item的个数
+     * @param maxPages 内存中最多保留的页数，超出时淘汰最久未使用的页
+     * @param executor 执行PageSource.loadPage的线程池
+     */
+    public PagedWheelAdapter(PageSource source, int pageSize, int maxPages, Executor executor) {
+        if (pageSize <= 0 || maxPages <= 0) {
+            throw new IllegalArgumentException("pageSize and maxPages must be greater than 0");
+        }
+        this.source = source;
+        this.count = source.getCount();
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+        this.executor = executor;
+
+        int pageCount = (count + pageSize - 1) / pageSize;
+        pages = new String[pageCount][];
+        loading = new boolean[pageCount];
+        pageLastUse = new long[pageCount];
+    }
+
+    /**
+     * @param placeholder 未加载的item显示的内容
+     */
+    public void setPlaceholder(String placeholder) {
+        this.placeholder = placeholder;
+    }
+
+    /**
+     * 数据未全部加载，无法测量所有item，可以提供一个最长的item作为宽度的模板。
+     * @param itemWidthTemplate 为null时由WheelView测量（只能测量已加载的item和占位符）
+     */
+    public void setItemWidthTemplate(String itemWidthTemplate) {
+        this.itemWidthTemplate = itemWidthTemplate;
+    }
+
+    public void setOnPageLoadedListener(OnPageLoadedListener l) {
+        this.onPageLoadedListener = l;
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String getItem(int index) {
+        String[] page = pages[index / pageSize];
+        return page == null ? placeholder : page[index % pageSize];
+    }
+
+    @Override
+    public int getItemWidth(Paint paint) {
+        if (itemWidthTemplate == null) {
+            return -1;
+        }
+        return (int) Math.ceil(paint.measureText(itemWidthTemplate));
+    }
+
+    public boolean isItemLoaded(int index) {
+        return pages[index / pageSize] != null;
+    }
+
+    /**
+     * 加载显示范围内的页，并向滑动方向提前加载。
+     * @param firstVisible 显示的第一个item的索引
+     * @param lastVisible  显示的最后一个item的索引
+     * @param aheadItems   提前加载的item个数，正数表示向索引增加的方向，负数表示向索引减小的方向
+     */
+    public void prefetch(int firstVisible, int lastVisible, int aheadItems) {
+        prefetch(firstVisible, lastVisible, aheadItems, false);
+    }
+
+    /**
+     * 同prefetch(int, int, int)。
+     * @param cyclic WheelView的循环模式：lastVisible小于firstVisible表示显示范围跨过数据的末尾
+     *               回到开头，提前加载的范围也跨过首尾，两边的页都会保留
+     */
+    public void prefetch(int firstVisible, int lastVisible, int aheadItems, boolean cyclic) {
+        int pageCount = pages.length;
+        if (pageCount == 0) {
+            return;
+        }
+        int firstPage;
+        int lastPage;
+        int windowPages;
+        if (!cyclic) {
+            int first = Math.max(0, Math.min(firstVisible, firstVisible + aheadItems));
+            int last = Math.min(count - 1, Math.max(lastVisible, lastVisible + aheadItems));
+            // one more page on each side.
+            firstPage = Math.max(0, first / pageSize - 1);
+            lastPage = Math.min(pageCount - 1, last / pageSize + 1);
+            windowPages = lastPage - firstPage + 1;
+            firstVisible = Math.max(0, firstVisible);
+            lastVisible = Math.min(count - 1, lastVisible);
+        } else {
+            int visibleItems = (lastVisible - firstVisible + count) % count + 1;
+            int first = wrapItem(firstVisible + Math.min(0, aheadItems));
+            int last = wrapItem(lastVisible + Math.max(0, aheadItems));
+            // one more page on each side, around the end of the data.
+            firstPage = (first / pageSize - 1 + pageCount) % pageCount;
+            lastPage = (last / pageSize + 1) % pageCount;
+            windowPages = visibleItems + Math.abs(aheadItems) >= count ? pageCount
+                    : ringPages(first / pageSize, last / pageSize, last < first) + 2;
+        }
+        // never ask for more pages than can be kept.
+        if (windowPages > maxPages) {
+            if (aheadItems >= 0) {
+                lastPage = (firstPage + maxPages - 1) % pageCount;
+            } else {
+                firstPage = (lastPage - maxPages + 1 + pageCount) % pageCount;
+            }
+            windowPages = maxPages;
+        } else if (windowPages >= pageCount) { // the whole ring.
+            firstPage = 0;
+            lastPage = pageCount - 1;
+            windowPages = pageCount;
+        }
+        // both ends in one write, the loader thread never sees half of a window.
+        window = ((long) firstPage << 32) | (lastPage & 0xffffffffL);
+
+        // visible pages first, then the pages ahead.
+        int visibleFirstPage = firstVisible / pageSize;
+        int visibleLastPage = lastVisible / pageSize;
+        boolean visibleWraps = cyclic && lastVisible < firstVisible;
+        for (int i = 0, n = ringPages(visibleFirstPage, visibleLastPage, visibleWraps);
+             i < n; i++) {
+            int page = (visibleFirstPage + i) % pageCount;
+            pageLastUse[page] = ++useCounter;
+            requestPage(page);
+        }
+        for (int i = 0; i < windowPages; i++) {
+            requestPage(aheadItems >= 0 ? (firstPage + i) % pageCount
+                    : (lastPage - i + pageCount) % pageCount);
+        }
+    }
+
+    private int wrapItem(int index) {
+        int wrapped = index % count;
+        return wrapped < 0 ? wrapped + count : wrapped;
+    }
+
+    /**
+     * @param wraps 从fromPage向后经过最后一页回到开头
+     * @return fromPage到toPage之间(包括两端)的页数
+     */
+    private int ringPages(int fromPage, int toPage, boolean wraps) {
+        return wraps ? pages.length - fromPage + toPage + 1 : toPage - fromPage + 1;
+    }
+
+    /**
+     * @return page是否在当前需要的范围内，范围的firstPage大于lastPage时跨过最后一页回到开头
+     */
+    private boolean isInWindow(int page) {
+        long w = window;
+        int firstPage = (int) (w >> 32);
+        int lastPage = (int) w;
+        return firstPage <= lastPage ? firstPage <= page && page <= lastPage
+                : page >= firstPage || page <= lastPage;
+    }
+
+    private void requestPage(final int page) {
+        if (pages[page] != null || loading[page]) {
+            return;
+        }
+        loading[page] = true;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!isInWindow(page)) { // not wanted any more.
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            loading[page] = false;
+                        }
+                    });
+                    return;
+                }
+                final int start = page * pageSize;
+                final String[] items = source.loadPage(start, Math.min(pageSize, count - start));
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onPageLoaded(page, start, items);
+                    }
+                });
+            }
+        });
+    }
+
+    private void onPageLoaded(int page, int start, String[] items) {
+        loading[page] = false;
+        if (loadedPages >= maxPages) {
+            evictPage();
+        }
+        pages[page] = items;
+        pageLastUse[page] = ++useCounter;
+        loadedPages++;
+
+        if (onPageLoadedListener != null) {
+            onPageLoadedListener.onPageLoaded(start, items.length);
+        }
+    }
+
+    // evict the least recently used page out of the current window.
+    private void evictPage() {
+        int lru = -1;
+        for (int page = 0; page < pages.length; page++) {
+            if (pages[page] != null && (lru == -1 || pageLastUse[page] < pageLastUse[lru])
+                    && !isInWindow(page)) {
+                lru = page;
+            }
+        }
+        if (lru != -1) {
+            pages[lru] = null;
+            loadedPages--;
+        }
+    }
+}
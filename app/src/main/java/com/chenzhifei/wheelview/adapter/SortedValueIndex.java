@@ -0,0 +1,40 @@
+package com.chenzhifei.wheelview.adapter;
+
+import java.util.Comparator;
+
+/**
+ * 有序数据的索引：直接在数据源上二分查找，O(log n)，不占用额外的内存。
+ * 数据源需要已经按comparator升序排列。
+ */
+
+public class SortedValueIndex implements ValueIndex {
+
+    private final WheelAdapter adapter;
+    private final Comparator<String> comparator;
+
+    /**
+     * @param comparator 数据源的排列顺序，null表示按String的自然顺序
+     */
+    public SortedValueIndex(WheelAdapter adapter, Comparator<String> comparator) {
+        this.adapter = adapter;
+        this.comparator = comparator;
+    }
+
+    @Override
+    public int indexOf(String value) {
+        int low = 0, high = adapter.getCount() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            String item = adapter.getItem(mid);
+            int result = comparator == null ? item.compareTo(value) : comparator.compare(item, value);
+            if (result < 0) {
+                low = mid + 1;
+            } else if (result > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
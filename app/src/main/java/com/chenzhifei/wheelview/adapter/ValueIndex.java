@@ -0,0 +1,15 @@
+package com.chenzhifei.wheelview.adapter;
+
+/**
+ * 按值查找item索引的索引结构，用于WheelView.scrollToValue，避免每次线性扫描整个数据源。
+ * 见HashValueIndex、SortedValueIndex。
+ */
+
+public interface ValueIndex {
+
+    /**
+     * @param value item的值
+     * @return value所在的索引，不存在时返回-1
+     */
+    int indexOf(String value);
+}
@@ -0,0 +1,28 @@
+package com.chenzhifei.wheelview.adapter;
+
+import android.graphics.Paint;
+
+/**
+ * WheelView的数据源。WheelView直接按索引读取数据，不再拷贝、填充数据。
+ */
+
+public interface WheelAdapter {
+
+    /**
+     * @return 数据的个数
+     */
+    int getCount();
+
+    /**
+     * @param index 0 ~ getCount()-1
+     * @return index位置的item
+     */
+    String getItem(int index);
+
+    /**
+     * 所有item宽度相同时（如数字、日期），直接返回该宽度，WheelView就不用逐个测量item了。
+     * @param paint WheelView绘制item使用的paint
+     * @return item的宽度，单位为像素；小于0表示宽度不固定，由WheelView测量。
+     */
+    int getItemWidth(Paint paint);
+}
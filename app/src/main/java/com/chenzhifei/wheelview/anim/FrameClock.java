@@ -0,0 +1,209 @@
+package com.chenzhifei.wheelview.anim;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * 动画时钟：每个vsync回调一次所有的FrameListener，并提供这一帧的时间。
+ * API 16及以上使用Choreographer，以下用Handler按16ms模拟。
+ * 只能在主线程使用。
+ */
+
+public class FrameClock {
+
+    public interface FrameListener {
+        /**
+         * 每一帧调用一次。
+         * @param frameTimeNanos 这一帧的时间，System.nanoTime()时间基准
+         * @return true表示下一帧继续回调，false表示移除
+         */
+        boolean onFrame(long frameTimeNanos);
+    }
+
+    private static final long FALLBACK_FRAME_DELAY_MS = 16;
+    private static final long DEFAULT_FRAME_INTERVAL_NANOS = 1000000000L / 60;
+
+    private final ArrayList<FrameListener> listeners = new ArrayList<>();
+    private FrameListener[] dispatching = new FrameListener[4];
+    private FrameListener current;  // the listener in onFrame()
+    private boolean currentReadded; // current called addFrameListener in onFrame()
+    private boolean scheduled = false;
+    private long frameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+
+    private final FrameScheduler scheduler;
+
+    public FrameClock() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            scheduler = new ChoreographerScheduler();
+        } else {
+            scheduler = new HandlerScheduler();
+        }
+    }
+
+    private FrameClock(FrameScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * 手动驱动的时钟，不依赖vsync和Looper，每次调用advance才回调一帧。用于回放、测试。
+     */
+    public static FrameClock createManual() {
+        return new FrameClock(new ManualScheduler());
+    }
+
+    /**
+     * 手动时钟前进一帧。
+     * @param frameTimeNanos 这一帧的时间
+     * @throws IllegalStateException 不是createManual创建的时钟
+     */
+    public void advance(long frameTimeNanos) {
+        if (!(scheduler instanceof ManualScheduler)) {
+            throw new IllegalStateException("only a manual FrameClock can be advanced");
+        }
+        if (scheduled) {
+            doFrame(frameTimeNanos);
+        }
+    }
+
+    /**
+     * 设置两次vsync的间隔，如按Display.getRefreshRate()计算。只用于预测，不改变回调的时机。
+     * @param frameIntervalNanos 小于等于0时按60Hz
+     */
+    public void setFrameIntervalNanos(long frameIntervalNanos) {
+        this.frameIntervalNanos = frameIntervalNanos > 0 ? frameIntervalNanos
+                : DEFAULT_FRAME_INTERVAL_NANOS;
+    }
+
+    /**
+     * @return 两次vsync的间隔，纳秒，默认60Hz
+     */
+    public long getFrameIntervalNanos() {
+        return frameIntervalNanos;
+    }
+
+    /**
+     * @return 是否有等待下一帧回调的FrameListener
+     */
+    public boolean isFrameScheduled() {
+        return scheduled;
+    }
+
+    /**
+     * 添加后从下一帧开始回调，已添加的不会重复添加。
+     * 在onFrame中重新添加自己时，即使onFrame返回false，下一帧也会继续回调。
+     */
+    public void addFrameListener(FrameListener listener) {
+        if (listener == current) {
+            currentReadded = true;
+        }
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        if (!scheduled) {
+            scheduled = true;
+            scheduler.schedule();
+        }
+    }
+
+    public void removeFrameListener(FrameListener listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty() && scheduled) {
+            scheduled = false;
+            scheduler.cancel();
+        }
+    }
+
+    public boolean hasFrameListener(FrameListener listener) {
+        return listeners.contains(listener);
+    }
+
+    private void doFrame(long frameTimeNanos) {
+        scheduled = false;
+
+        // listeners may be added or removed in onFrame(), dispatch to a snapshot.
+        int size = listeners.size();
+        if (dispatching.length < size) {
+            dispatching = new FrameListener[size * 2];
+        }
+        listeners.toArray(dispatching);
+        for (int i = 0; i < size; i++) {
+            FrameListener listener = dispatching[i];
+            dispatching[i] = null;
+            if (!listeners.contains(listener)) { // removed by an earlier listener
+                continue;
+            }
+            current = listener;
+            currentReadded = false;
+            boolean keep = listener.onFrame(frameTimeNanos);
+            current = null;
+            if (!keep && !currentReadded) {
+                listeners.remove(listener);
+            }
+        }
+
+        if (!listeners.isEmpty() && !scheduled) {
+            scheduled = true;
+            scheduler.schedule();
+        }
+    }
+
+    private interface FrameScheduler {
+        void schedule();
+
+        void cancel();
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private class ChoreographerScheduler implements FrameScheduler, Choreographer.FrameCallback {
+        private final Choreographer choreographer = Choreographer.getInstance();
+
+        @Override
+        public void schedule() {
+            choreographer.postFrameCallback(this);
+        }
+
+        @Override
+        public void cancel() {
+            choreographer.removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            FrameClock.this.doFrame(frameTimeNanos);
+        }
+    }
+
+    private static class ManualScheduler implements FrameScheduler {
+        @Override
+        public void schedule() {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+
+    private class HandlerScheduler implements FrameScheduler, Runnable {
+        private final Handler handler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void schedule() {
+            handler.postDelayed(this, FALLBACK_FRAME_DELAY_MS);
+        }
+
+        @Override
+        public void cancel() {
+            handler.removeCallbacks(this);
+        }
+
+        @Override
+        public void run() {
+            FrameClock.this.doFrame(System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.chenzhifei.wheelview.controller;
+
+import android.view.MotionEvent;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 把触摸事件序列写成紧凑的二进制trace，用单元测试中的GestureTraceReplayer回放，复现线上的滑动问题。
+ *
+ * 格式(DataOutputStream，大端)：
+ *   header: int MAGIC, short VERSION
+ *   每个事件: byte actionMasked, byte actionIndex, byte pointerCount, short sampleCount,
+ *            int downTime, pointerCount * byte pointerId,
+ *            sampleCount * (int eventTime, pointerCount * (float x, float y))
+ *   sampleCount = 历史采样个数 + 1，最后一个为事件本身的采样。
+ *   时间为相对第一个事件downTime的毫秒数。
+ *
+ * 在主线程调用，写入过程不分配内存；写入失败后不再记录，见getError。
+ */
+
+public class GestureTraceRecorder implements Closeable {
+
+    static final int MAGIC = 0x57564754; // "WVGT"
+    static final short VERSION = 1;
+
+    private final DataOutputStream out;
+    private long baseTime = -1;
+    private IOException error;
+
+    /**
+     * @param out trace的输出，close时一起关闭
+     */
+    public GestureTraceRecorder(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.out.writeInt(MAGIC);
+        this.out.writeShort(VERSION);
+    }
+
+    public void record(MotionEvent event) {
+        if (error != null) {
+            return;
+        }
+        if (baseTime < 0) {
+            baseTime = event.getDownTime();
+        }
+        try {
+            int pointerCount = event.getPointerCount();
+            int historySize = event.getHistorySize();
+            out.writeByte(event.getActionMasked());
+            out.writeByte(event.getActionIndex());
+            out.writeByte(pointerCount);
+            out.writeShort(historySize + 1);
+            out.writeInt((int) (event.getDownTime() - baseTime));
+            for (int p = 0; p < pointerCount; p++) {
+                out.writeByte(event.getPointerId(p));
+            }
+            for (int h = 0; h < historySize; h++) {
+                out.writeInt((int) (event.getHistoricalEventTime(h) - baseTime));
+                for (int p = 0; p < pointerCount; p++) {
+                    out.writeFloat(event.getHistoricalX(p, h));
+                    out.writeFloat(event.getHistoricalY(p, h));
+                }
+            }
+            out.writeInt((int) (event.getEventTime() - baseTime));
+            for (int p = 0; p < pointerCount; p++) {
+                out.writeFloat(event.getX(p));
+                out.writeFloat(event.getY(p));
+            }
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+
+    /**
+     * @return 写入失败的异常，没有失败时返回null
+     */
+    public IOException getError() {
+        return error;
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -2,12 +2,17 @@ package com.chenzhifei.wheelview.controller;
 
 import android.view.MotionEvent;
 
+import com.chenzhifei.wheelview.anim.FrameClock;
+import com.chenzhifei.wheelview.gesture.TouchPredictor;
 import com.chenzhifei.wheelview.gesture.TwoFingersGestureDetector;
 import com.chenzhifei.wheelview.view.WheelView;
 
 /**
  * Created by chenzhifei on 2017/6/30.
  * control the WheelView
+ *
+ * 手指移动不直接更新WheelView，而是累加到下一帧统一应用一次：高采样率的触摸屏(如240Hz、
+ * 非批量分发的事件)每帧有多个MOVE事件，也只做一次滚动更新和重绘。
  */
 
 public class WheelViewController {
@@ -15,22 +20,49 @@ public class WheelViewController {
     private WheelView wheelView;
 
     private TwoFingersGestureDetector twoFingersGestureDetector;
+    private final TouchPredictor touchPredictor = new TouchPredictor();
+
+    // moves between two frames are coalesced and applied once, at the next frame.
+    private float pendingMovedY = 0f;
+    private FrameClock pendingMoveClock; // null: no move pending
+    private long latestEventTime = 0;    // MotionEvent.getEventTime() of the latest input
+    private final FrameClock.FrameListener moveFrameListener = new FrameClock.FrameListener() {
+        @Override
+        public boolean onFrame(long frameTimeNanos) {
+            // this frame is shown one vsync later, predict the finger to then.
+            twoFingersGestureDetector.updatePrediction(
+                    frameTimeNanos + pendingMoveClock.getFrameIntervalNanos());
+            pendingMoveClock = null;
+            applyPendingMove();
+            return false;
+        }
+    };
 
     public WheelViewController(WheelView wheelView) {
         this.wheelView = wheelView;
         this.wheelView.setYVelocityReduce(50f);
 
         twoFingersGestureDetector = new TwoFingersGestureDetector();
+        // rotate and scale are not used by WheelView.
+        twoFingersGestureDetector.setGestureMask(TwoFingersGestureDetector.GESTURE_MOVE
+                | TwoFingersGestureDetector.GESTURE_VELOCITY);
+        // draw the wheel where the finger will be at the next vsync, not where it was.
+        twoFingersGestureDetector.setTouchPredictor(touchPredictor);
         twoFingersGestureDetector.setTwoFingersGestureListener(
                 new TwoFingersGestureDetector.TwoFingersGestureListener() {
             @Override
             public void onDown(float downX, float downY, long downTime) {
+                cancelPendingMove();
                 WheelViewController.this.wheelView.stopAnim();
             }
 
             @Override
             public void onMoved(float deltaMovedX, float deltaMovedY, long deltaMilliseconds) {
-                WheelViewController.this.wheelView.updateY(deltaMovedY);
+                pendingMovedY += deltaMovedY;
+                if (pendingMoveClock == null) {
+                    pendingMoveClock = WheelViewController.this.wheelView.getFrameClock();
+                    pendingMoveClock.addFrameListener(moveFrameListener);
+                }
             }
 
             @Override
@@ -44,19 +76,71 @@ public class WheelViewController {
 
             @Override
             public void onUp(float upX, float upY, long upTime, float xVelocity, float yVelocity) {
-
+                flushPendingMove(); // the fling starts from where the finger left.
                 WheelViewController.this.wheelView.startAnim(yVelocity);
             }
 
             @Override
             public void onCancel() {
+                flushPendingMove();
                 WheelViewController.this.wheelView.startAnim(0);
             }
         });
     }
 
     public void inputTouchEvent(MotionEvent event) {
+        if (gestureTraceRecorder != null) {
+            gestureTraceRecorder.record(event);
+        }
+        latestEventTime = event.getEventTime();
+        // until the frame re-predicts to its own time, predict one frame of this display ahead.
+        touchPredictor.setPredictionHorizon(wheelView.getFrameClock().getFrameIntervalNanos() / 1000000f);
         twoFingersGestureDetector.onTouchEvent(event);
     }
 
+    /**
+     * @return 最近一次输入的MotionEvent.getEventTime()，毫秒
+     */
+    public long getLatestEventTime() {
+        return latestEventTime;
+    }
+
+    /**
+     * 立即应用还未到下一帧的移动。
+     */
+    public void flushPendingMove() {
+        if (pendingMoveClock != null) {
+            pendingMoveClock.removeFrameListener(moveFrameListener);
+            pendingMoveClock = null;
+        }
+        applyPendingMove();
+    }
+
+    private void cancelPendingMove() {
+        if (pendingMoveClock != null) {
+            pendingMoveClock.removeFrameListener(moveFrameListener);
+            pendingMoveClock = null;
+        }
+        pendingMovedY = 0f;
+    }
+
+    // WheelScroller applies the overscroll resistance piecewise, so one sum equals many small moves.
+    private void applyPendingMove() {
+        float movedY = pendingMovedY;
+        pendingMovedY = 0f;
+        if (movedY != 0f) {
+            wheelView.updateY(movedY, latestEventTime);
+        }
+    }
+
+    private GestureTraceRecorder gestureTraceRecorder;
+
+    /**
+     * 记录之后输入的所有触摸事件，见GestureTraceRecorder和单元测试中的GestureTraceReplayer。
+     * @param recorder null表示停止记录，recorder需要调用者关闭
+     */
+    public void setGestureTraceRecorder(GestureTraceRecorder recorder) {
+        this.gestureTraceRecorder = recorder;
+    }
+
 }
@@ -0,0 +1,221 @@
+package com.chenzhifei.wheelview.gesture;
+
+import android.view.MotionEvent;
+
+/**
+ * 手指位置预测：读取MotionEvent中所有的历史采样，用最近VELOCITY_WINDOW_MS内的采样拟合速度，
+ * 把手指位置外推到下一次vsync显示的时间，减少拖动时View落后手指的距离。
+ * 知道这一帧的时间时用predictAt外推到准确的显示时间，高刷新率和晚到的帧都不会预测过头或不足；
+ * 否则addMovement按固定的预测时长外推。
+ *
+ * 防止预测过头：
+ * 1. 采样不足或手指正在反向时不预测；
+ * 2. 外推的距离不超过手指在之前相同时长内实际移动的距离；
+ * 3. 外推的距离不超过setMaxPredictionDistance设置的上限。
+ */
+
+public class TouchPredictor {
+
+    private static final int MAX_SAMPLES = 16;
+    private static final long VELOCITY_WINDOW_MS = 50;
+    private static final int MIN_SAMPLES = 3;
+
+    private static final float DEFAULT_HORIZON_MS = 16f; // one frame at 60Hz.
+    private static final float MAX_HORIZON_MS = VELOCITY_WINDOW_MS; // no further than the fitted samples.
+    private static final float DEFAULT_MAX_PREDICTION_PX = 48f;
+
+    // ring buffer of samples, head is the newest.
+    private final long[] times = new long[MAX_SAMPLES];
+    private final float[] xs = new float[MAX_SAMPLES];
+    private final float[] ys = new float[MAX_SAMPLES];
+    private int head = -1;
+    private int size = 0;
+
+    private float horizonMs = DEFAULT_HORIZON_MS;
+    private float maxPredictionPx = DEFAULT_MAX_PREDICTION_PX;
+
+    private float xVelocity; // pixels/millisecond, updated in predict()
+    private float yVelocity;
+    private float predictedX;
+    private float predictedY;
+
+    /**
+     * @param horizonMs addMovement外推的时长，从最新采样到下一次vsync显示的时间，毫秒。0表示不预测
+     */
+    public void setPredictionHorizon(float horizonMs) {
+        this.horizonMs = Math.max(0f, horizonMs);
+    }
+
+    public float getPredictionHorizon() {
+        return horizonMs;
+    }
+
+    /**
+     * @param maxPredictionPx 外推距离的上限，像素
+     */
+    public void setMaxPredictionDistance(float maxPredictionPx) {
+        this.maxPredictionPx = Math.max(0f, maxPredictionPx);
+    }
+
+    public void reset() {
+        head = -1;
+        size = 0;
+        xVelocity = yVelocity = 0f;
+    }
+
+    /**
+     * 添加event中的所有历史采样和最新采样。两个手指时使用两个手指的中点。
+     */
+    public void addMovement(MotionEvent event) {
+        boolean twoFingers = event.getPointerCount() == 2;
+        for (int h = 0, historySize = event.getHistorySize(); h < historySize; h++) {
+            if (twoFingers) {
+                addSample(event.getHistoricalEventTime(h),
+                        (event.getHistoricalX(0, h) + event.getHistoricalX(1, h)) / 2f,
+                        (event.getHistoricalY(0, h) + event.getHistoricalY(1, h)) / 2f);
+            } else {
+                addSample(event.getHistoricalEventTime(h),
+                        event.getHistoricalX(0, h), event.getHistoricalY(0, h));
+            }
+        }
+        if (twoFingers) {
+            addSample(event.getEventTime(), (event.getX(0) + event.getX(1)) / 2f,
+                    (event.getY(0) + event.getY(1)) / 2f);
+        } else {
+            addSample(event.getEventTime(), event.getX(0), event.getY(0));
+        }
+        predict();
+    }
+
+    /**
+     * @param timeMillis 采样时间，与MotionEvent.getEventTime()相同的时间基准
+     */
+    public void addSample(long timeMillis, float x, float y) {
+        head = (head + 1) % MAX_SAMPLES;
+        times[head] = timeMillis;
+        xs[head] = x;
+        ys[head] = y;
+        if (size < MAX_SAMPLES) {
+            size++;
+        }
+    }
+
+    /**
+     * 根据已添加的采样重新计算速度，按setPredictionHorizon的时长预测位置，addMovement会自动调用。
+     */
+    public void predict() {
+        predict(horizonMs);
+    }
+
+    /**
+     * 把位置外推到targetTimeNanos，如这一帧显示的时间：frameTimeNanos + 一帧的间隔。
+     * 外推的时长不超过VELOCITY_WINDOW_MS，目标时间早于最新采样时不预测。
+     * @param targetTimeNanos System.nanoTime()时间基准，与MotionEvent.getEventTime() * 1000000相同
+     */
+    public void predictAt(long targetTimeNanos) {
+        if (size == 0) {
+            return;
+        }
+        float horizon = (targetTimeNanos - times[head] * 1000000L) / 1000000f;
+        predict(Math.max(0f, Math.min(horizon, MAX_HORIZON_MS)));
+    }
+
+    private void predict(float horizon) {
+        if (size == 0) {
+            return;
+        }
+        predictedX = xs[head];
+        predictedY = ys[head];
+        if (!fitVelocity() || horizon == 0f) {
+            return;
+        }
+        predictedX += guard(xVelocity * horizon, horizon, xs);
+        predictedY += guard(yVelocity * horizon, horizon, ys);
+    }
+
+    public float getPredictedX() {
+        return predictedX;
+    }
+
+    public float getPredictedY() {
+        return predictedY;
+    }
+
+    /**
+     * @return 最新采样的实际位置
+     */
+    public float getLastX() {
+        return size == 0 ? 0f : xs[head];
+    }
+
+    public float getLastY() {
+        return size == 0 ? 0f : ys[head];
+    }
+
+    /**
+     * @return 拟合的速度，像素/秒
+     */
+    public float getXVelocity() {
+        return xVelocity * 1000f;
+    }
+
+    public float getYVelocity() {
+        return yVelocity * 1000f;
+    }
+
+    // least squares over the samples in VELOCITY_WINDOW_MS.
+    private boolean fitVelocity() {
+        xVelocity = yVelocity = 0f;
+        long newestTime = times[head];
+        int n = 0;
+        float sumT = 0f, sumX = 0f, sumY = 0f, sumTT = 0f, sumTX = 0f, sumTY = 0f;
+        for (int i = 0; i < size; i++) {
+            int index = (head - i + MAX_SAMPLES) % MAX_SAMPLES;
+            long age = newestTime - times[index];
+            if (age > VELOCITY_WINDOW_MS) {
+                break;
+            }
+            float t = -age;
+            sumT += t;
+            sumX += xs[index];
+            sumY += ys[index];
+            sumTT += t * t;
+            sumTX += t * xs[index];
+            sumTY += t * ys[index];
+            n++;
+        }
+        if (n < MIN_SAMPLES) {
+            return false;
+        }
+        float denominator = n * sumTT - sumT * sumT;
+        if (denominator == 0f) {
+            return false;
+        }
+        xVelocity = (n * sumTX - sumT * sumX) / denominator;
+        yVelocity = (n * sumTY - sumT * sumY) / denominator;
+        return true;
+    }
+
+    /**
+     * 限制外推距离：手指反向时不预测，不超过之前horizon内实际移动的距离，也不超过maxPredictionPx。
+     */
+    private float guard(float delta, float horizon, float[] values) {
+        int previous = (head - 1 + MAX_SAMPLES) % MAX_SAMPLES;
+        float lastStep = values[head] - values[previous];
+        if (lastStep * delta < 0f) { // reversing.
+            return 0f;
+        }
+
+        long newestTime = times[head];
+        float travelled = 0f;
+        for (int i = 1; i < size; i++) {
+            int index = (head - i + MAX_SAMPLES) % MAX_SAMPLES;
+            travelled = Math.abs(values[head] - values[index]);
+            if (newestTime - times[index] >= horizon) {
+                break;
+            }
+        }
+        float limit = Math.min(travelled, maxPredictionPx);
+        return Math.max(-limit, Math.min(delta, limit));
+    }
+}
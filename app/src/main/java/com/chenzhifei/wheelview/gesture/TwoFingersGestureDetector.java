@@ -10,7 +10,16 @@ import android.view.VelocityTracker;
 
 public class TwoFingersGestureDetector {
 
+    // gesture types, combined as a mask in setGestureMask().
+    public static final int GESTURE_MOVE = 1;
+    public static final int GESTURE_ROTATE = 1 << 1;
+    public static final int GESTURE_SCALE = 1 << 2;
+    public static final int GESTURE_VELOCITY = 1 << 3; // xVelocity and yVelocity in onUp.
+    public static final int GESTURE_ALL = GESTURE_MOVE | GESTURE_ROTATE | GESTURE_SCALE | GESTURE_VELOCITY;
+    private int gestureMask = GESTURE_ALL;
+
     private boolean moreThan2Fingers = false;
+    private boolean fingerDown = false; // between ACTION_DOWN and ACTION_UP
 
     private float oldX = 0f;
     private float oldY = 0f;
@@ -29,19 +38,27 @@ public class TwoFingersGestureDetector {
 
     private VelocityTracker vt = VelocityTracker.obtain();
 
+    // null: no prediction. otherwise oldX/oldY are the predicted position that has been dispatched.
+    private TouchPredictor touchPredictor;
+
     public boolean onTouchEvent(MotionEvent event) {
         if (event.getPointerCount() > 2) {
             moreThan2Fingers = true;
+            settlePrediction();
             if (twoFingersGestureListener != null) {
                 twoFingersGestureListener.onCancel();
             }
         }
-        vt.addMovement(event);
+        if ((gestureMask & GESTURE_VELOCITY) != 0) {
+            vt.addMovement(event);
+        }
         switch (event.getActionMasked()) {
             case MotionEvent.ACTION_DOWN:
+                fingerDown = true;
                 oldX = event.getX(0);
                 oldY = event.getY(0);
                 oldTimestamp = event.getDownTime();
+                resetPrediction(oldTimestamp);
                 if (twoFingersGestureListener != null) {
                     twoFingersGestureListener.onDown(oldX, oldY, oldTimestamp);
                 }
@@ -57,9 +74,11 @@ public class TwoFingersGestureDetector {
                 oldScaledY = 0f;
                 old2FingersDistance = 0f;
 
+                settlePrediction();
                 oldX = (event.getX(0) + event.getX(1)) / 2f;
                 oldY = (event.getY(0) + event.getY(1)) / 2f;
                 oldTimestamp = event.getEventTime();
+                resetPrediction(oldTimestamp);
                 break;
             case MotionEvent.ACTION_MOVE:
                 if (moreThan2Fingers) {
@@ -70,19 +89,25 @@ public class TwoFingersGestureDetector {
                 long currDeltaMilliseconds = newTimestamp - oldTimestamp;
                 oldTimestamp = newTimestamp;
 
+                // 一个MOVE事件中可能有多个历史采样，每种手势只回调一次整批的变化量。
                 float newX, newY;
                 // handle 2 fingers touch
                 if (event.getPointerCount() == 2) {
                     // handle rotate
-                    float currDeltaRotatedDeg = getRotatedDegBetween2Events(event);
+                    if ((gestureMask & GESTURE_ROTATE) != 0) {
+                        float currDeltaRotatedDeg = getRotatedDegBetween2Events(event);
+                        if (this.twoFingersGestureListener != null) {
+                            twoFingersGestureListener.onRotated(currDeltaRotatedDeg, currDeltaMilliseconds);
+                        }
+                    }
                     // handle scale
-                    float deltaScaledX = getDeltaScaledXBetween2Events(event);
-                    float deltaScaledY = getDeltaScaledYBetween2Events(event);
-                    float currDeltaScaledDistance = getScaledDistanceBetween2Events(event);
-
-                    if (this.twoFingersGestureListener != null) {
-                        twoFingersGestureListener.onScaled(deltaScaledX, deltaScaledY, currDeltaScaledDistance, currDeltaMilliseconds);
-                        twoFingersGestureListener.onRotated(currDeltaRotatedDeg, currDeltaMilliseconds);
+                    if ((gestureMask & GESTURE_SCALE) != 0) {
+                        float deltaScaledX = getDeltaScaledXBetween2Events(event);
+                        float deltaScaledY = getDeltaScaledYBetween2Events(event);
+                        float currDeltaScaledDistance = getScaledDistanceBetween2Events(event);
+                        if (this.twoFingersGestureListener != null) {
+                            twoFingersGestureListener.onScaled(deltaScaledX, deltaScaledY, currDeltaScaledDistance, currDeltaMilliseconds);
+                        }
                     }
 
                     // handle move
@@ -92,13 +117,19 @@ public class TwoFingersGestureDetector {
                     newX = event.getX(0);
                     newY = event.getY(0);
                 }
+                if (touchPredictor != null) { // move to where the finger will be at the next vsync.
+                    touchPredictor.addMovement(event);
+                    newX = touchPredictor.getPredictedX();
+                    newY = touchPredictor.getPredictedY();
+                }
 
+                // the deltas of historical samples add up to (newest - old), so only the newest is needed.
                 float currDeltaMovedX = newX - oldX;
                 float currDeltaMovedY = newY - oldY;
                 oldX = newX;
                 oldY = newY;
 
-                if (this.twoFingersGestureListener != null) {
+                if ((gestureMask & GESTURE_MOVE) != 0 && this.twoFingersGestureListener != null) {
                     twoFingersGestureListener.onMoved(currDeltaMovedX, currDeltaMovedY, currDeltaMilliseconds);
                 }
                 break;
@@ -107,6 +138,7 @@ public class TwoFingersGestureDetector {
                     return true;
                 }
 
+                settlePrediction();
                 if (event.getActionIndex() == 0) {
                     oldX = event.getX(1);
                     oldY = event.getY(1);
@@ -114,17 +146,24 @@ public class TwoFingersGestureDetector {
                     oldX = event.getX(0);
                     oldY = event.getY(0);
                 }
+                resetPrediction(event.getEventTime());
                 break;
             case MotionEvent.ACTION_UP:
+                fingerDown = false;
                 if (moreThan2Fingers) {
                     moreThan2Fingers = false;
                     return true;
                 }
 
-                vt.computeCurrentVelocity(1000);
-                float yVelocity = vt.getYVelocity();
-                float xVelocity = vt.getXVelocity();
-                vt.clear();
+                settlePrediction();
+
+                float xVelocity = 0f, yVelocity = 0f;
+                if ((gestureMask & GESTURE_VELOCITY) != 0) {
+                    vt.computeCurrentVelocity(1000);
+                    yVelocity = vt.getYVelocity();
+                    xVelocity = vt.getXVelocity();
+                    vt.clear();
+                }
 
                 if (twoFingersGestureListener != null) {
                     twoFingersGestureListener.onUp(oldX, oldY, oldTimestamp, xVelocity, yVelocity);
@@ -134,9 +173,63 @@ public class TwoFingersGestureDetector {
         return true;
     }
 
+    /**
+     * 把预测的位置更新到targetTimeNanos，如这一帧显示的时间，位置的变化通过onMoved回调。
+     * 手指没有按下、多于两个手指或没有设置TouchPredictor时不做任何事。
+     * @param targetTimeNanos 见TouchPredictor.predictAt
+     */
+    public void updatePrediction(long targetTimeNanos) {
+        if (touchPredictor == null || !fingerDown || moreThan2Fingers) {
+            return;
+        }
+        touchPredictor.predictAt(targetTimeNanos);
+        float deltaX = touchPredictor.getPredictedX() - oldX;
+        float deltaY = touchPredictor.getPredictedY() - oldY;
+        oldX = touchPredictor.getPredictedX();
+        oldY = touchPredictor.getPredictedY();
+        if ((deltaX != 0f || deltaY != 0f) && (gestureMask & GESTURE_MOVE) != 0
+                && twoFingersGestureListener != null) {
+            twoFingersGestureListener.onMoved(deltaX, deltaY, 0);
+        }
+    }
+
+    private void resetPrediction(long timeMillis) {
+        if (touchPredictor != null) {
+            touchPredictor.reset();
+            touchPredictor.addSample(timeMillis, oldX, oldY);
+        }
+    }
+
+    /**
+     * 撤销还未发生的预测部分：回调从预测位置回到手指实际位置的移动。
+     */
+    private void settlePrediction() {
+        if (touchPredictor == null) {
+            return;
+        }
+        float lastX = touchPredictor.getLastX();
+        float lastY = touchPredictor.getLastY();
+        float deltaX = lastX - oldX;
+        float deltaY = lastY - oldY;
+        oldX = lastX;
+        oldY = lastY;
+        if ((deltaX != 0f || deltaY != 0f) && (gestureMask & GESTURE_MOVE) != 0
+                && twoFingersGestureListener != null) {
+            twoFingersGestureListener.onMoved(deltaX, deltaY, 0);
+        }
+    }
+
+    // rotation wraps at ±180°, so every historical sample is accumulated, not only the newest.
     private float getRotatedDegBetween2Events(MotionEvent event) {
-        float spanX = event.getX(1) - event.getX(0);
-        float spanY = event.getY(1) - event.getY(0);
+        float deltaDeg = 0f;
+        for (int h = 0, historySize = event.getHistorySize(); h < historySize; h++) {
+            deltaDeg += getRotatedDeg(event.getHistoricalX(1, h) - event.getHistoricalX(0, h),
+                    event.getHistoricalY(1, h) - event.getHistoricalY(0, h));
+        }
+        return deltaDeg + getRotatedDeg(event.getX(1) - event.getX(0), event.getY(1) - event.getY(0));
+    }
+
+    private float getRotatedDeg(float spanX, float spanY) {
         float tanDeg = (float) Math.atan2(spanY, spanX) * RADIAN_TO_DEGREE;
         if (oldTanDeg == 0f
                 || (tanDeg - oldTanDeg > REFERENCE_DEGREES && tanDeg >= 0f && oldTanDeg <= 0f)
@@ -211,4 +304,32 @@ public class TwoFingersGestureDetector {
     public void setTwoFingersGestureListener(TwoFingersGestureListener l) {
         this.twoFingersGestureListener = l;
     }
+
+    /**
+     * 只计算和回调需要的手势，默认为GESTURE_ALL。
+     * 不需要GESTURE_VELOCITY时不再跟踪速度，onUp中的速度为0。
+     * @param gestureMask GESTURE_MOVE, GESTURE_ROTATE, GESTURE_SCALE, GESTURE_VELOCITY的组合
+     */
+    public void setGestureMask(int gestureMask) {
+        if ((this.gestureMask & GESTURE_VELOCITY) != 0 && (gestureMask & GESTURE_VELOCITY) == 0) {
+            vt.clear();
+        }
+        this.gestureMask = gestureMask;
+    }
+
+    public int getGestureMask() {
+        return gestureMask;
+    }
+
+    /**
+     * 设置手指位置预测，onMoved按预测的位置回调，手指抬起时再回到实际位置。
+     * @param touchPredictor null表示不预测
+     */
+    public void setTouchPredictor(TouchPredictor touchPredictor) {
+        this.touchPredictor = touchPredictor;
+        if (touchPredictor != null) {
+            touchPredictor.reset();
+            touchPredictor.addSample(oldTimestamp, oldX, oldY);
+        }
+    }
 }
@@ -0,0 +1,109 @@
+package com.chenzhifei.wheelview.view;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.chenzhifei.wheelview.adapter.ArrayWheelAdapter;
+import com.chenzhifei.wheelview.adapter.WheelAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 在后台线程准备WheelView的新数据：拷贝数组、测量所有item，完成后在主线程回调。
+ * 新的prepare或cancel会丢弃还未完成的准备。只能在主线程调用。
+ */
+
+class DataPreparer {
+
+    interface Callback {
+        /**
+         * 准备完成，在主线程调用，被取消的准备不会回调。
+         * @param adapter 准备好的数据源，没有数据时为"no data"
+         */
+        void onPrepared(WheelAdapter adapter, int itemMaxWidth, int itemMaxHeight, float textSize);
+    }
+
+    private static final ExecutorService prepareExecutor =
+            Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "WheelView-prepare");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ItemMeasurer itemMeasurer;
+
+    // increased when a preparation starts or is canceled, older preparations will be dropped.
+    private volatile int generation = 0;
+    private boolean preparing = false; // only used in main thread
+
+    DataPreparer(ItemMeasurer itemMeasurer) {
+        this.itemMeasurer = itemMeasurer;
+    }
+
+    /**
+     * @param dataArr 不为null时在后台线程拷贝，之后调用者可以修改数组
+     * @param adapter dataArr为null时使用，需要可以在后台线程读取
+     * @param paint   WheelView绘制item的paint，会拷贝一份在后台线程使用
+     */
+    void prepare(final String[] dataArr, final WheelAdapter adapter, Paint paint,
+                 final Callback callback) {
+        final int prepareGeneration = ++generation;
+        preparing = true;
+        final Paint preparePaint = new Paint(paint); // paint is not thread safe
+        final ItemMeasurer.CancelSignal signal = new ItemMeasurer.CancelSignal() {
+            @Override
+            public boolean isCanceled() {
+                return prepareGeneration != generation;
+            }
+        };
+        prepareExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (signal.isCanceled()) {
+                    return;
+                }
+                WheelAdapter prepared = dataArr != null
+                        ? new ArrayWheelAdapter(dataArr.clone()) : adapter;
+                if (prepared.getCount() == 0) {
+                    prepared = new ArrayWheelAdapter(new String[]{"no data"});
+                }
+                final Rect maxSize = new Rect();
+                if (!itemMeasurer.measureAll(prepared, preparePaint, maxSize, signal)) {
+                    return;
+                }
+                final WheelAdapter result = prepared;
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (prepareGeneration != generation) {
+                            return;
+                        }
+                        preparing = false;
+                        callback.onPrepared(result, maxSize.width(), maxSize.height(),
+                                preparePaint.getTextSize());
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 丢弃还未完成的准备。
+     */
+    void cancel() {
+        generation++;
+        preparing = false;
+    }
+
+    boolean isPreparing() {
+        return preparing;
+    }
+}
@@ -0,0 +1,93 @@
+package com.chenzhifei.wheelview.view;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+/**
+ * WheelView上下两端的渐变遮罩。
+ * 遮罩只随竖直方向变化，所以只生成一张1像素宽、与WheelView等高的位图，
+ * 尺寸或参数变化时才重新生成，每帧拉伸绘制一次即可。
+ */
+
+class EdgeFadeOverlay {
+
+    private Bitmap mask;
+    private final Paint maskPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final RectF dstRect = new RectF();
+    private int[] pixels = new int[0];
+
+    private int width = -1;
+    private int height = -1;
+    private float clearTop = -1f;
+    private float clearBottom = -1f;
+    private int fadeColor;
+    private float fadeExtent = -1f;
+
+    /**
+     * 参数变化时重新生成遮罩。
+     * @param clearTop    clearTop ~ clearBottom之间完全透明
+     * @param fadeColor   两端的颜色
+     * @param fadeExtent  0 ~ 1，从两端到透明区域之间，渐变部分所占的比例，其余部分为fadeColor
+     */
+    void ensure(int width, int height, float clearTop, float clearBottom, int fadeColor,
+                float fadeExtent) {
+        if (mask != null && this.width == width && this.height == height
+                && this.clearTop == clearTop && this.clearBottom == clearBottom
+                && this.fadeColor == fadeColor && this.fadeExtent == fadeExtent) {
+            return;
+        }
+        this.width = width;
+        this.height = height;
+        this.clearTop = clearTop;
+        this.clearBottom = clearBottom;
+        this.fadeColor = fadeColor;
+        this.fadeExtent = fadeExtent;
+
+        release();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (pixels.length < height) {
+            pixels = new int[height];
+        }
+        int rgb = fadeColor & 0x00ffffff;
+        int edgeAlpha = Color.alpha(fadeColor);
+        float topSolid = clearTop * (1f - fadeExtent);
+        float bottomSolid = height - (height - clearBottom) * (1f - fadeExtent);
+        for (int y = 0; y < height; y++) {
+            float center = y + 0.5f;
+            float fraction; // 1: fadeColor, 0: transparent
+            if (center < clearTop) {
+                fraction = center <= topSolid ? 1f : (clearTop - center) / (clearTop - topSolid);
+            } else if (center > clearBottom) {
+                fraction = center >= bottomSolid ? 1f
+                        : (center - clearBottom) / (bottomSolid - clearBottom);
+            } else {
+                fraction = 0f;
+            }
+            pixels[y] = ((int) (edgeAlpha * fraction) << 24) | rgb;
+        }
+        mask = Bitmap.createBitmap(pixels, 1, height, Bitmap.Config.ARGB_8888);
+    }
+
+    /**
+     * 在WheelView的坐标系下绘制遮罩。
+     */
+    void draw(Canvas canvas) {
+        if (mask == null) {
+            return;
+        }
+        dstRect.set(0, 0, width, height);
+        canvas.drawBitmap(mask, null, dstRect, maskPaint);
+    }
+
+    void release() {
+        if (mask != null) {
+            mask.recycle();
+            mask = null;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.chenzhifei.wheelview.view;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffXfermode;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import com.chenzhifei.wheelview.adapter.CharWheelAdapter;
+import com.chenzhifei.wheelview.adapter.WheelAdapter;
+
+/**
+ * item的位图缓存：每个item只按居中位置的大小绘制一次文字，保存在一张atlas位图的格子里，
+ * 之后每帧在item的变换矩阵下drawBitmap，不再每帧经过透视变换重新光栅化文字。
+ * 格子按LRU复用，只保留最近显示过的item。
+ * 格子按列排成网格，atlas的宽高都不超过MAX_ATLAS_SIZE和Canvas的最大位图尺寸，
+ * 硬件加速时不会因为超过GL纹理的最大尺寸而无法上传、绘制为空白。
+ */
+
+class ItemAtlas {
+
+    private static final int PADDING = 2; // pixels around each cell, keeps filtered edges clean.
+    // within GL_MAX_TEXTURE_SIZE of practically every device, so the atlas can be uploaded.
+    private static final int MAX_ATLAS_SIZE = 2048;
+
+    private Bitmap atlas;
+    private final Canvas atlasCanvas = new Canvas();
+    private final Paint clearPaint = new Paint();
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Rect srcRect = new Rect();
+    private final RectF dstRect = new RectF();
+    private final Paint.FontMetrics fontMetrics = new Paint.FontMetrics();
+    private char[] charBuffer = new char[0]; // for CharWheelAdapter
+
+    private int capacity;
+    private int rows; // cells in each column
+    private int cellWidth;
+    private int cellHeight;
+    private int maxAtlasSize;
+    private int requestedCapacity;
+    private int minCapacity;
+    private int[] cellItems = new int[0]; // data index in each cell, -1 means empty
+    private long[] cellLastUse = new long[0];
+    private long useCounter = 0;
+
+    // the params that the cells were rendered with.
+    private int itemMaxWidth = -1;
+    private int itemMaxHeight = -1;
+    private float textOriginX = -1f;
+    private float scale = -1f;
+    private float textSize = -1f;
+
+    ItemAtlas() {
+        clearPaint.setXfermode(new PorterDuffXfermode(PorterDuff.Mode.CLEAR));
+    }
+
+    /**
+     * 参数变化时清空缓存，必要时重新创建atlas位图。
+     * @param canvas      要绘制到的canvas，用于获取最大位图尺寸
+     * @param scale       居中item的放大倍数，按这个倍数绘制可以保证居中item清晰
+     * @param capacity    希望的格子个数
+     * @param minCapacity 最少的格子个数，至少为同时显示的item个数
+     * @return atlas放不下minCapacity个格子时返回false，这时不能使用draw，需要直接绘制文字
+     */
+    boolean ensure(Canvas canvas, Paint paint, int itemMaxWidth, int itemMaxHeight,
+                   float textOriginX, float scale, int capacity, int minCapacity) {
+        int maxSize = Math.min(MAX_ATLAS_SIZE,
+                Math.min(canvas.getMaximumBitmapWidth(), canvas.getMaximumBitmapHeight()));
+        if (this.itemMaxWidth == itemMaxWidth
+                && this.itemMaxHeight == itemMaxHeight && this.textOriginX == textOriginX
+                && this.scale == scale && this.textSize == paint.getTextSize()
+                && this.maxAtlasSize == maxSize && this.requestedCapacity == capacity
+                && this.minCapacity == minCapacity && (atlas != null || this.capacity == 0)) {
+            return atlas != null; // capacity 0: the cells did not fit.
+        }
+        this.itemMaxWidth = itemMaxWidth;
+        this.itemMaxHeight = itemMaxHeight;
+        this.textOriginX = textOriginX;
+        this.scale = scale;
+        this.textSize = paint.getTextSize();
+        this.maxAtlasSize = maxSize;
+        this.requestedCapacity = capacity;
+        this.minCapacity = minCapacity;
+
+        paint.getFontMetrics(fontMetrics);
+        int width = (int) Math.ceil(itemMaxWidth * scale) + 2 * PADDING;
+        int height = (int) Math.ceil((fontMetrics.descent - fontMetrics.ascent) * scale) + 2 * PADDING;
+        // fill columns of maxSize, as many columns as needed and allowed.
+        int maxRows = maxSize / height;
+        int maxCells = maxRows * (maxSize / width);
+        if (maxCells < minCapacity) { // rows too wide or too tall to be cached.
+            release();
+            this.capacity = 0;
+            return false;
+        }
+        int newCapacity = Math.min(capacity, maxCells);
+        int newRows = Math.min(newCapacity, maxRows);
+        if (atlas == null || width != cellWidth || height != cellHeight
+                || newCapacity != this.capacity || newRows != rows) {
+            release();
+            cellWidth = width;
+            cellHeight = height;
+            this.capacity = newCapacity;
+            rows = newRows;
+            int columns = (newCapacity + rows - 1) / rows;
+            atlas = Bitmap.createBitmap(cellWidth * columns, cellHeight * rows,
+                    Bitmap.Config.ARGB_8888);
+            atlasCanvas.setBitmap(atlas);
+            cellItems = new int[newCapacity];
+            cellLastUse = new long[newCapacity];
+        }
+        invalidate();
+        return true;
+    }
+
+    /**
+     * 清空所有格子，item内容或颜色变化时调用。
+     */
+    void invalidate() {
+        for (int i = 0; i < cellItems.length; i++) {
+            cellItems[i] = -1;
+            cellLastUse[i] = 0;
+        }
+    }
+
+    /**
+     * 在当前canvas矩阵下绘制index位置的item，和drawText(item, textOriginX, itemMaxHeight)位置相同。
+     */
+    void draw(Canvas canvas, WheelAdapter adapter, int index, Paint paint) {
+        int cell = findCell(index);
+        if (cell < 0) {
+            cell = leastRecentlyUsedCell();
+            renderCell(cell, adapter, index, paint);
+            cellItems[cell] = index;
+        }
+        cellLastUse[cell] = ++useCounter;
+
+        int cellLeft = cellLeft(cell);
+        int cellTop = cellTop(cell);
+        srcRect.set(cellLeft, cellTop, cellLeft + cellWidth, cellTop + cellHeight);
+        float left = -PADDING / scale;
+        float top = itemMaxHeight + fontMetrics.ascent - PADDING / scale;
+        dstRect.set(left, top, left + cellWidth / scale, top + cellHeight / scale);
+        canvas.drawBitmap(atlas, srcRect, dstRect, bitmapPaint);
+    }
+
+    /**
+     * @return 格子个数，atlas放不下时为0
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    Bitmap getBitmap() {
+        return atlas;
+    }
+
+    void release() {
+        if (atlas != null) {
+            atlas.recycle();
+            atlas = null;
+        }
+    }
+
+    private int cellLeft(int cell) {
+        return cell / rows * cellWidth;
+    }
+
+    private int cellTop(int cell) {
+        return cell % rows * cellHeight;
+    }
+
+    private int findCell(int index) {
+        for (int i = 0; i < capacity; i++) {
+            if (cellItems[i] == index) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int leastRecentlyUsedCell() {
+        int lru = 0;
+        for (int i = 1; i < capacity; i++) {
+            if (cellLastUse[i] < cellLastUse[lru]) {
+                lru = i;
+            }
+        }
+        return lru;
+    }
+
+    private void renderCell(int cell, WheelAdapter adapter, int index, Paint paint) {
+        int cellLeft = cellLeft(cell);
+        int cellTop = cellTop(cell);
+        atlasCanvas.drawRect(cellLeft, cellTop, cellLeft + cellWidth, cellTop + cellHeight, clearPaint);
+
+        atlasCanvas.save();
+        atlasCanvas.translate(cellLeft + PADDING, cellTop + PADDING);
+        atlasCanvas.scale(scale, scale);
+        if (adapter instanceof CharWheelAdapter) {
+            CharWheelAdapter charAdapter = (CharWheelAdapter) adapter;
+            if (charBuffer.length < charAdapter.getMaxItemLength()) {
+                charBuffer = new char[charAdapter.getMaxItemLength()];
+            }
+            int length = charAdapter.getItemChars(index, charBuffer);
+            atlasCanvas.drawText(charBuffer, 0, length, textOriginX, -fontMetrics.ascent, paint);
+        } else {
+            atlasCanvas.drawText(adapter.getItem(index), textOriginX, -fontMetrics.ascent, paint);
+        }
+        atlasCanvas.restore();
+    }
+}
@@ -0,0 +1,295 @@
+package com.chenzhifei.wheelview.view;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import com.chenzhifei.wheelview.adapter.WheelAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 测量WheelView中最大item的尺寸。
+ * 测量结果按(字符串, paint配置)缓存，缓存满了按LRU淘汰，item个数超过缓存大小的全量测量不使用缓存；
+ * 估算模式只测量部分item，剩余的在后台线程补全测量。
+ */
+
+class ItemMeasurer {
+
+    interface RefineCallback {
+        /**
+         * 后台补全测量完成，在主线程调用。
+         */
+        void onRefined(int itemMaxWidth, int itemMaxHeight);
+    }
+
+    interface CancelSignal {
+        /**
+         * 在测量线程中定期调用，返回true时中止测量。
+         */
+        boolean isCanceled();
+    }
+
+    private static final int CACHE_SIZE = 4096;
+    private static final int SAMPLE_ITEMS = 64;   // 估算模式均匀采样的item个数
+    private static final int LONGEST_ITEMS = 16;  // 估算模式额外测量字符数最多的item个数
+
+    private static final ExecutorService refineExecutor =
+            Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "WheelView-measure");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // size(width, height) of a text, keyed by text and paint config.
+    private final LruCache<Key, Rect> cache = new LruCache<>(CACHE_SIZE);
+    private final Key lookupKey = new Key(); // only used in main thread
+    private final Rect textRect = new Rect();
+
+    private final int[] longestIndexes = new int[LONGEST_ITEMS];
+    private final int[] longestLengths = new int[LONGEST_ITEMS];
+
+    // increased when a new measurement starts, the older background refinement will be dropped.
+    private volatile int generation = 0;
+
+    /**
+     * 测量所有item，得到最大的item尺寸。
+     * @param outMaxSize width为最大item宽度，height为其高度
+     */
+    void measure(WheelAdapter adapter, Paint paint, Rect outMaxSize) {
+        cancel();
+        measureRange(adapter, paint, lookupKey, textRect, outMaxSize, null);
+    }
+
+    /**
+     * 在任意线程测量所有item，得到最大的item尺寸，测量结果写入共享的缓存(item不超过缓存大小时)。
+     * 所有item宽度相同时只测量第一个item。
+     * @param paint  只能由调用线程使用
+     * @param signal 中止测量，与cancel()无关
+     * @return false 被signal中止
+     */
+    boolean measureAll(WheelAdapter adapter, Paint paint, Rect outMaxSize, CancelSignal signal) {
+        Key key = new Key();
+        Rect textRect = new Rect();
+        int fixedItemWidth = adapter.getItemWidth(paint);
+        if (fixedItemWidth >= 0) {
+            measureText(adapter.getItem(0), paint, key, textRect);
+            outMaxSize.set(0, 0, fixedItemWidth, textRect.height());
+            return !signal.isCanceled();
+        }
+        return measureRange(adapter, paint, key, textRect, outMaxSize, signal);
+    }
+
+    /**
+     * 只测量一个item。
+     */
+    void measureItem(String item, Paint paint, Rect outSize) {
+        measureText(item, paint, lookupKey, outSize);
+    }
+
+    /**
+     * 只测量一个char[]形式的item，不使用缓存，不分配内存。
+     */
+    void measureItemChars(char[] chars, int length, Paint paint, Rect outSize) {
+        paint.getTextBounds(chars, 0, length, outSize);
+        outSize.set(0, 0, outSize.width(), outSize.height());
+    }
+
+    /**
+     * 测量均匀采样的item和字符数最多的item，估算最大的item尺寸，然后在后台线程测量所有item。
+     * adapter需要可以在后台线程读取。
+     * @param outMaxSize width为估算的最大item宽度，height为其高度
+     * @param callback   后台测量得到更大的item时调用
+     */
+    void estimate(final WheelAdapter adapter, Paint paint, Rect outMaxSize,
+                  final RefineCallback callback) {
+        cancel();
+        int count = adapter.getCount();
+        if (count <= SAMPLE_ITEMS + LONGEST_ITEMS) {
+            measureRange(adapter, paint, lookupKey, textRect, outMaxSize, null);
+            return;
+        }
+
+        int maxWidth = 0, maxHeight = 0;
+        float step = count / (float) SAMPLE_ITEMS;
+        for (int i = 0; i < SAMPLE_ITEMS; i++) {
+            measureText(adapter.getItem((int) (i * step)), paint, lookupKey, textRect);
+            if (textRect.width() > maxWidth) {
+                maxWidth = textRect.width();
+                maxHeight = textRect.height();
+            }
+        }
+
+        findLongestItems(adapter, count);
+        for (int i = 0; i < LONGEST_ITEMS; i++) {
+            measureText(adapter.getItem(longestIndexes[i]), paint, lookupKey, textRect);
+            if (textRect.width() > maxWidth) {
+                maxWidth = textRect.width();
+                maxHeight = textRect.height();
+            }
+        }
+        outMaxSize.set(0, 0, maxWidth, maxHeight);
+
+        final int estimatedWidth = maxWidth;
+        final int refineGeneration = generation;
+        final Paint refinePaint = new Paint(paint); // paint is not thread safe
+        final CancelSignal signal = new CancelSignal() {
+            @Override
+            public boolean isCanceled() {
+                return refineGeneration != generation;
+            }
+        };
+        refineExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Rect maxSize = new Rect();
+                if (!measureRange(adapter, refinePaint, new Key(), new Rect(), maxSize, signal)
+                        || maxSize.width() <= estimatedWidth) {
+                    return; // canceled, or the estimate is already the max.
+                }
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (refineGeneration == generation) {
+                            callback.onRefined(maxSize.width(), maxSize.height());
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 丢弃还未完成的后台测量。
+     */
+    void cancel() {
+        generation++;
+    }
+
+    void clearCache() {
+        cache.evictAll();
+    }
+
+    /**
+     * 超过缓存大小时，顺序的全量测量不会命中缓存，只会不停地淘汰，所以直接测量不经过缓存。
+     * @param signal null if it can not be canceled.
+     * @return false if canceled by the signal.
+     */
+    private boolean measureRange(WheelAdapter adapter, Paint paint, Key key, Rect textRect,
+                                 Rect outMaxSize, CancelSignal signal) {
+        int count = adapter.getCount();
+        boolean useCache = count <= CACHE_SIZE;
+        int maxWidth = 0, maxHeight = 0;
+        for (int i = 0; i < count; i++) {
+            if ((i & 0x3ff) == 0 && signal != null && signal.isCanceled()) {
+                return false;
+            }
+            String text = adapter.getItem(i);
+            if (useCache) {
+                measureText(text, paint, key, textRect);
+            } else {
+                paint.getTextBounds(text, 0, text.length(), textRect);
+            }
+            if (textRect.width() > maxWidth) {
+                maxWidth = textRect.width();
+                maxHeight = textRect.height();
+            }
+        }
+        outMaxSize.set(0, 0, maxWidth, maxHeight);
+        return true;
+    }
+
+    private void measureText(String text, Paint paint, Key key, Rect outSize) {
+        key.set(text, paint);
+        Rect size = cache.get(key);
+        if (size == null) {
+            paint.getTextBounds(text, 0, text.length(), outSize);
+            cache.put(new Key().set(text, paint), new Rect(0, 0, outSize.width(), outSize.height()));
+        } else {
+            outSize.set(size);
+        }
+    }
+
+    // keep the LONGEST_ITEMS items that have the most chars, sorted by length in descending order.
+    private void findLongestItems(WheelAdapter adapter, int count) {
+        for (int i = 0; i < LONGEST_ITEMS; i++) {
+            longestIndexes[i] = i;
+            longestLengths[i] = -1;
+        }
+        for (int i = 0; i < count; i++) {
+            int length = adapter.getItem(i).length();
+            if (length <= longestLengths[LONGEST_ITEMS - 1]) {
+                continue;
+            }
+            int pos = LONGEST_ITEMS - 1;
+            while (pos > 0 && longestLengths[pos - 1] < length) {
+                longestLengths[pos] = longestLengths[pos - 1];
+                longestIndexes[pos] = longestIndexes[pos - 1];
+                pos--;
+            }
+            longestLengths[pos] = length;
+            longestIndexes[pos] = i;
+        }
+    }
+
+    /**
+     * text + the paint attributes that affect text bounds.
+     * color and align do not change the size, so they are not part of the key.
+     */
+    private static final class Key {
+        String text;
+        float textSize;
+        float textScaleX;
+        float textSkewX;
+        boolean fakeBoldText;
+        Typeface typeface;
+
+        Key set(String text, Paint paint) {
+            this.text = text;
+            this.textSize = paint.getTextSize();
+            this.textScaleX = paint.getTextScaleX();
+            this.textSkewX = paint.getTextSkewX();
+            this.fakeBoldText = paint.isFakeBoldText();
+            this.typeface = paint.getTypeface();
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return textSize == key.textSize
+                    && textScaleX == key.textScaleX
+                    && textSkewX == key.textSkewX
+                    && fakeBoldText == key.fakeBoldText
+                    && typeface == key.typeface
+                    && text.equals(key.text);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = text.hashCode();
+            result = 31 * result + Float.floatToIntBits(textSize);
+            result = 31 * result + Float.floatToIntBits(textScaleX);
+            result = 31 * result + Float.floatToIntBits(textSkewX);
+            result = 31 * result + (fakeBoldText ? 1 : 0);
+            result = 31 * result + (typeface != null ? typeface.hashCode() : 0);
+            return result;
+        }
+    }
+}
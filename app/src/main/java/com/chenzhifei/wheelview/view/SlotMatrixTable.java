@@ -0,0 +1,163 @@
+package com.chenzhifei.wheelview.view;
+
+import android.graphics.Matrix;
+
+import com.chenzhifei.wheelview.core.WheelProjection;
+
+/**
+ * 预先计算好的item变换矩阵表。
+ * 每个位置(slot)的矩阵只由它的角度决定，按STEP_DEG量化角度后保存矩阵的9个值，
+ * onDraw时查表并在相邻两项之间线性插值，不再每帧每个item都计算透视矩阵。
+ * 只有wheelRadius、item尺寸、对齐方式变化时才重建。
+ *
+ * 两头透视压缩明显的item另外保存一个仿射近似的矩阵(没有透视项)：只保留中心线上的缩放和位置，
+ * 丢掉梯形的倾斜。透视矩阵下文字要逐个字形按路径绘制，仿射矩阵可以直接使用字形缓存，
+ * showItems很大时两头大量的小item只需要很少的绘制时间。
+ * 在阈值附近的一段高度内两个矩阵线性过渡，item滑过阈值时不会突然从梯形变为矩形。
+ */
+
+class SlotMatrixTable {
+
+    private static final float STEP_DEG = 0.25f;
+    private static final float MIN_PROJECTED_HEIGHT = 1f; // pixels
+    // heights from lowDetailRatio to lowDetailRatio * (1 + LOW_DETAIL_BLEND) blend the two matrices.
+    private static final float LOW_DETAIL_BLEND = 0.5f;
+
+    private float wheelRadius = -1f;
+    private float cameraDistance = -1f;
+    private float textTranslateX = -1f;
+    private int itemMaxHeight = -1;
+    private float maxDeg = -1f;
+
+    private int entries;
+    private float[] matrixValues;     // entries * 9
+    private float[] projectedHeights; // entries
+    private float[] affineValues;     // entries * 9, perspective dropped
+    private float centerHeight;       // projected height at 0°
+    private final float[] values = new float[9];
+    private final float[] affine = new float[9];
+
+    /**
+     * 参数变化时重建表。
+     * @param maxDeg 表的角度范围为 -maxDeg ~ maxDeg
+     */
+    void ensure(float wheelRadius, float cameraDistance, float textTranslateX, int itemMaxHeight,
+                float maxDeg) {
+        if (this.wheelRadius == wheelRadius && this.cameraDistance == cameraDistance
+                && this.textTranslateX == textTranslateX
+                && this.itemMaxHeight == itemMaxHeight && this.maxDeg == maxDeg) {
+            return;
+        }
+        this.wheelRadius = wheelRadius;
+        this.cameraDistance = cameraDistance;
+        this.textTranslateX = textTranslateX;
+        this.itemMaxHeight = itemMaxHeight;
+        this.maxDeg = maxDeg;
+
+        entries = (int) Math.ceil(2 * maxDeg / STEP_DEG) + 1;
+        if (matrixValues == null || matrixValues.length < entries * 9) {
+            matrixValues = new float[entries * 9];
+            projectedHeights = new float[entries];
+            affineValues = new float[entries * 9];
+        }
+
+        for (int i = 0; i < entries; i++) {
+            float deg = -maxDeg + i * STEP_DEG;
+            // translate coordinate origin that camera's transformation depends on
+            // to left/center/right of the maxItem
+            WheelProjection.getMatrixValues(deg, wheelRadius, cameraDistance,
+                    textTranslateX, itemMaxHeight / 2, values);
+            System.arraycopy(values, 0, matrixValues, i * 9, 9);
+            float top = mapY(values, textTranslateX, 0f);
+            float bottom = mapY(values, textTranslateX, itemMaxHeight);
+            projectedHeights[i] = bottom - top;
+
+            // affine: exact on the vertical line through the pivot, x scale of the middle row.
+            float middleY = itemMaxHeight / 2f;
+            float centerX = mapX(values, textTranslateX, middleY);
+            float scaleX = mapX(values, textTranslateX + 1f, middleY) - centerX;
+            float scaleY = itemMaxHeight == 0 ? 0f : projectedHeights[i] / itemMaxHeight;
+            int offset = i * 9;
+            affineValues[offset + Matrix.MSCALE_X] = scaleX;
+            affineValues[offset + Matrix.MSKEW_X] = 0f;
+            affineValues[offset + Matrix.MTRANS_X] = centerX - scaleX * textTranslateX;
+            affineValues[offset + Matrix.MSKEW_Y] = 0f;
+            affineValues[offset + Matrix.MSCALE_Y] = scaleY;
+            affineValues[offset + Matrix.MTRANS_Y] = top;
+            affineValues[offset + Matrix.MPERSP_0] = 0f;
+            affineValues[offset + Matrix.MPERSP_1] = 0f;
+            affineValues[offset + Matrix.MPERSP_2] = 1f;
+        }
+        WheelProjection.getMatrixValues(0f, wheelRadius, cameraDistance,
+                textTranslateX, itemMaxHeight / 2, values);
+        centerHeight = mapY(values, textTranslateX, itemMaxHeight) - mapY(values, textTranslateX, 0f);
+    }
+
+    /**
+     * @return deg位置的item投影后是否还有可见的高度，背面朝外或不足1像素的不用绘制。
+     */
+    boolean isVisible(float deg) {
+        float pos = (deg + maxDeg) / STEP_DEG;
+        if (pos < 0f || pos > entries - 1) {
+            return false;
+        }
+        return projectedHeight(pos) >= MIN_PROJECTED_HEIGHT;
+    }
+
+    /**
+     * 取deg位置的变换矩阵，deg需要先用isVisible检查。
+     * @param lowDetailRatio 投影高度低于居中item的这个比例时使用仿射近似矩阵，0表示都使用透视矩阵
+     */
+    void getMatrix(float deg, float lowDetailRatio, Matrix outMatrix) {
+        float pos = (deg + maxDeg) / STEP_DEG;
+        float blend = 0f; // 0: perspective, 1: affine
+        if (lowDetailRatio > 0f && centerHeight > 0f) {
+            float heightRatio = projectedHeight(pos) / centerHeight;
+            blend = (lowDetailRatio * (1f + LOW_DETAIL_BLEND) - heightRatio)
+                    / (lowDetailRatio * LOW_DETAIL_BLEND);
+        }
+        if (blend <= 0f) {
+            interpolate(matrixValues, pos, values);
+        } else if (blend >= 1f) {
+            interpolate(affineValues, pos, values);
+        } else {
+            interpolate(matrixValues, pos, values);
+            interpolate(affineValues, pos, affine);
+            // same scale as the affine matrix(MPERSP_2 = 1) before mixing, it does not change the mapping.
+            float normalize = 1f / values[Matrix.MPERSP_2];
+            for (int k = 0; k < 9; k++) {
+                float v = values[k] * normalize;
+                values[k] = v + (affine[k] - v) * blend;
+            }
+        }
+        outMatrix.setValues(values);
+    }
+
+    private float projectedHeight(float pos) {
+        int i = (int) pos;
+        int j = Math.min(i + 1, entries - 1);
+        float fraction = pos - i;
+        return projectedHeights[i] + (projectedHeights[j] - projectedHeights[i]) * fraction;
+    }
+
+    private void interpolate(float[] table, float pos, float[] outValues) {
+        int i = (int) pos;
+        int j = Math.min(i + 1, entries - 1);
+        float fraction = pos - i;
+        int offsetI = i * 9, offsetJ = j * 9;
+        for (int k = 0; k < 9; k++) {
+            float vi = table[offsetI + k];
+            outValues[k] = vi + (table[offsetJ + k] - vi) * fraction;
+        }
+    }
+
+    private static float mapX(float[] m, float x, float y) {
+        float w = m[Matrix.MPERSP_0] * x + m[Matrix.MPERSP_1] * y + m[Matrix.MPERSP_2];
+        return (m[Matrix.MSCALE_X] * x + m[Matrix.MSKEW_X] * y + m[Matrix.MTRANS_X]) / w;
+    }
+
+    private static float mapY(float[] m, float x, float y) {
+        float w = m[Matrix.MPERSP_0] * x + m[Matrix.MPERSP_1] * y + m[Matrix.MPERSP_2];
+        return (m[Matrix.MSKEW_Y] * x + m[Matrix.MSCALE_Y] * y + m[Matrix.MTRANS_Y]) / w;
+    }
+}
@@ -0,0 +1,113 @@
+package com.chenzhifei.wheelview.view;
+
+import com.chenzhifei.wheelview.adapter.WheelAdapter;
+import com.chenzhifei.wheelview.anim.FrameClock;
+
+/**
+ * 联动的多列WheelView，如日期、时间选择器。
+ * 所有列共用一个动画时钟；后面的列可以根据前面各列的当前索引提供数据源（如某年某月的天数），
+ * 前面的列停止时只更新后面的列，并尽量保持它们的当前位置。
+ * WheelGroup会占用各列的StateValueListener，使用setOnValueChangedListener获取各列的状态。
+ */
+
+public class WheelGroup {
+
+    public interface ColumnAdapterProvider {
+        /**
+         * 前面的列变化时调用。
+         * @param column      要更新的列
+         * @param currIndexes 各列当前居中item的索引，只有0 ~ column-1有意义，不要修改
+         * @return 该列的数据源，返回该列当前的数据源表示不用更新
+         */
+        WheelAdapter getAdapter(int column, int[] currIndexes);
+    }
+
+    public interface OnValueChangedListener {
+        /**
+         * 某一列滚动停止、或因联动而改变时调用
+         * @param column    列的索引
+         * @param currIndex 该列居中item的索引
+         * @param currItem  该列居中item的值
+         */
+        void onValueChanged(int column, int currIndex, String currItem);
+    }
+
+    private final WheelView[] columns;
+    private final ColumnAdapterProvider[] providers;
+    private final int[] currIndexes;
+    private final FrameClock frameClock = new FrameClock();
+    private OnValueChangedListener onValueChangedListener;
+    private boolean cascading = false;
+
+    public WheelGroup(WheelView... columns) {
+        this.columns = columns;
+        this.providers = new ColumnAdapterProvider[columns.length];
+        this.currIndexes = new int[columns.length];
+
+        for (int i = 0; i < columns.length; i++) {
+            final int column = i;
+            columns[i].setFrameClock(frameClock);
+            currIndexes[i] = columns[i].getCurrentIndex();
+            columns[i].setStateValueListener(new WheelView.StateValueListener() {
+                @Override
+                public void stateValue(int currIndex, String currItem) {
+                    onColumnChanged(column, currIndex, currItem);
+                }
+            });
+        }
+    }
+
+    /**
+     * 设置某一列的数据源，该列的数据源依赖于前面各列的当前索引。设置后立即更新该列。
+     */
+    public void setColumnAdapterProvider(int column, ColumnAdapterProvider provider) {
+        providers[column] = provider;
+        updateColumn(column);
+    }
+
+    public void setOnValueChangedListener(OnValueChangedListener l) {
+        this.onValueChangedListener = l;
+    }
+
+    public WheelView getColumn(int column) {
+        return columns[column];
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * @return 某一列当前居中item的索引
+     */
+    public int getCurrentIndex(int column) {
+        return currIndexes[column];
+    }
+
+    private void onColumnChanged(int column, int currIndex, String currItem) {
+        currIndexes[column] = currIndex;
+        // 依次更新后面的列。某列的索引因此改变时会再回调这里，此时只记录索引，由外层循环继续更新。
+        if (!cascading) {
+            cascading = true;
+            for (int i = column + 1; i < columns.length; i++) {
+                updateColumn(i);
+            }
+            cascading = false;
+        }
+        if (onValueChangedListener != null) {
+            onValueChangedListener.onValueChanged(column, currIndex, currItem);
+        }
+    }
+
+    private void updateColumn(int column) {
+        ColumnAdapterProvider provider = providers[column];
+        if (provider == null) {
+            return;
+        }
+        WheelView wheelView = columns[column];
+        WheelAdapter adapter = provider.getAdapter(column, currIndexes);
+        if (adapter != null && adapter != wheelView.getAdapter()) {
+            wheelView.swapAdapter(adapter); // keeps position, or clamps and notifies onColumnChanged.
+        }
+    }
+}
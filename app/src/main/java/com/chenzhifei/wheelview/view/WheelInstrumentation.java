@@ -0,0 +1,150 @@
+package com.chenzhifei.wheelview.view;
+
+import android.os.Build;
+import android.os.Trace;
+
+import com.chenzhifei.wheelview.core.WheelScroller;
+
+/**
+ * 记录WheelView的绘制耗时和动画帧数据，只在setMetricsEnabled(true)之后创建。
+ * 记录过程不分配内存；API 18及以上同时输出systrace section。只能在主线程使用。
+ */
+
+class WheelInstrumentation {
+
+    private static final String[] SECTION_NAMES = {
+            "WheelView#onDraw", "WheelView#drawWheelText", "WheelView#drawLayer"};
+    private static final long DEFAULT_FRAME_INTERVAL_NANOS = 1000000000L / 60;
+
+    private final WheelMetrics metrics = new WheelMetrics();
+    private WheelView.MetricsListener listener;
+    private long frameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+
+    // the animation phase being recorded: a fling, or a clamp after it.
+    private int animKind = -1; // -1: no animation
+    private int animSteps;
+    private int animFrames;
+    private int animDroppedFrames;
+    private long animStartNanos;
+    private long lastStepNanos;
+
+    void setListener(WheelView.MetricsListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @param refreshRate 屏幕刷新率，用于判断掉帧，小于等于0时按60
+     */
+    void setRefreshRate(float refreshRate) {
+        frameIntervalNanos = refreshRate > 0f ? (long) (1000000000L / refreshRate)
+                : DEFAULT_FRAME_INTERVAL_NANOS;
+    }
+
+    WheelMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return 开始时间，传给endSection
+     */
+    long beginSection(int section) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.beginSection(SECTION_NAMES[section]);
+        }
+        return System.nanoTime();
+    }
+
+    void endSection(int section, long startNanos) {
+        metrics.recordSection(section, System.nanoTime() - startNanos);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * 动画时钟的每次回调之后调用。
+     * @param stateBefore 这一步之前WheelScroller的状态
+     * @param stateAfter  这一步之后WheelScroller的状态
+     */
+    void onAnimStep(long frameTimeNanos, int stateBefore, int stateAfter) {
+        int kind = kindOf(stateBefore);
+        if (kind != animKind) {
+            finishAnim(frameTimeNanos);
+            startAnim(kind, frameTimeNanos);
+        }
+        if (animKind < 0) {
+            return;
+        }
+        if (lastStepNanos != 0) {
+            long interval = frameTimeNanos - lastStepNanos;
+            // a callback 2 vsyncs later means 1 frame was dropped.
+            long missed = (interval + frameIntervalNanos / 2) / frameIntervalNanos - 1;
+            if (missed > 0) {
+                animDroppedFrames += missed;
+            }
+        }
+        lastStepNanos = frameTimeNanos;
+        animSteps++;
+        if (kindOf(stateAfter) != animKind) {
+            finishAnim(frameTimeNanos);
+            startAnim(kindOf(stateAfter), frameTimeNanos);
+        }
+    }
+
+    /**
+     * 动画过程中每次onDraw调用。
+     */
+    void onFrameDrawn() {
+        if (animKind >= 0) {
+            animFrames++;
+        }
+    }
+
+    /**
+     * 动画被打断(stopAnim)或结束时调用。
+     */
+    void onAnimStopped() {
+        finishAnim(System.nanoTime());
+        animKind = -1;
+        lastStepNanos = 0;
+    }
+
+    private void startAnim(int kind, long frameTimeNanos) {
+        animKind = kind;
+        animSteps = 0;
+        animFrames = 0;
+        animDroppedFrames = 0;
+        animStartNanos = frameTimeNanos;
+        if (kind < 0) {
+            lastStepNanos = 0;
+        }
+    }
+
+    private void finishAnim(long endNanos) {
+        if (animKind < 0 || animSteps == 0) {
+            return;
+        }
+        long durationNanos = Math.max(0, endNanos - animStartNanos);
+        metrics.recordAnimation(animKind, animSteps, animFrames, animDroppedFrames, durationNanos);
+        if (listener != null) {
+            listener.onAnimationMetrics(animKind, animSteps, animFrames, animDroppedFrames,
+                    durationNanos);
+        }
+        animSteps = 0;
+    }
+
+    private static int kindOf(int scrollerState) {
+        switch (scrollerState) {
+            case WheelScroller.STATE_SLIDING:
+            case WheelScroller.STATE_ANALYTIC_FLING:
+                return WheelMetrics.ANIM_FLING;
+            case WheelScroller.STATE_NORMAL_CLAMP:
+            case WheelScroller.STATE_MAX_MIN_CLAMP:
+                return WheelMetrics.ANIM_CLAMP;
+            case WheelScroller.STATE_SCROLL_TO:
+                return WheelMetrics.ANIM_SCROLL_TO;
+            default:
+                return -1;
+        }
+    }
+}
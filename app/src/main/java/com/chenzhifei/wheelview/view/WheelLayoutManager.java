@@ -0,0 +1,302 @@
+package com.chenzhifei.wheelview.view;
+
+import android.support.v7.widget.RecyclerView;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.chenzhifei.wheelview.anim.FrameClock;
+import com.chenzhifei.wheelview.core.WheelGeometry;
+import com.chenzhifei.wheelview.core.WheelProjection;
+import com.chenzhifei.wheelview.core.WheelScroller;
+
+import java.util.List;
+
+/**
+ * RecyclerView的LayoutManager，把WheelView的3D滚轮效果用在任意的item view上，如图标+文字。
+ * 与WheelView使用相同的WheelGeometry、WheelScroller：每个slot上的child通过rotationX、scale、
+ * translationY变换到WheelView中item的位置，只保留showItems+1个child，其余的view回收复用；
+ * 惯性滑动、溢出阻尼和对齐也与WheelView相同。不支持循环模式。
+ */
+
+public class WheelLayoutManager extends RecyclerView.LayoutManager {
+
+    public interface OnItemSelectedListener {
+        /**
+         * 滑动停止后调用。
+         * @param position 居中item的位置
+         */
+        void onItemSelected(int position);
+    }
+
+    private static final int DEFAULT_SCROLL_DURATION_MS = 300;
+
+    private final WheelGeometry geometry;
+    private final WheelScroller scroller;
+    private FrameClock frameClock = new FrameClock();
+
+    private RecyclerView recyclerView;
+    private OnItemSelectedListener onItemSelectedListener;
+
+    private float projectionY = 0f;
+    private int pendingPosition = 0; // scrollToPosition before the first layout
+    private int laidOutFirstIndex;   // firstSlotItemIndex when the children were laid out
+    private final float[] viewTransform = new float[2];
+
+    private final FrameClock.FrameListener animFrameListener = new FrameClock.FrameListener() {
+        @Override
+        public boolean onFrame(long frameTimeNanos) {
+            int result = scroller.doFrame(frameTimeNanos);
+            if (result != WheelScroller.FRAME_IDLE) {
+                updateChildren();
+            }
+            if (result == WheelScroller.FRAME_SETTLED && onItemSelectedListener != null) {
+                onItemSelectedListener.onItemSelected(getCurrentPosition());
+            }
+            return scroller.isAnimating();
+        }
+    };
+
+    // RecyclerView's own fling is replaced by WheelScroller's.
+    private final RecyclerView.OnFlingListener onFlingListener = new RecyclerView.OnFlingListener() {
+        @Override
+        public boolean onFling(int velocityX, int velocityY) {
+            startAnim(-velocityY);
+            recyclerView.stopScroll(); // back to SCROLL_STATE_IDLE, the animation is already running.
+            return true;
+        }
+    };
+
+    private final RecyclerView.OnItemTouchListener onItemTouchListener =
+            new RecyclerView.OnItemTouchListener() {
+        @Override
+        public boolean onInterceptTouchEvent(RecyclerView rv, MotionEvent e) {
+            if (e.getActionMasked() == MotionEvent.ACTION_DOWN) {
+                stopAnim();
+            }
+            return false;
+        }
+
+        @Override
+        public void onTouchEvent(RecyclerView rv, MotionEvent e) {
+        }
+
+        @Override
+        public void onRequestDisallowInterceptTouchEvent(boolean disallowIntercept) {
+        }
+    };
+
+    /**
+     * @param showItems 同时显示的item个数，1 ~ WheelGeometry.MAX_SHOW_ITEMS之间的奇数
+     */
+    public WheelLayoutManager(int showItems) {
+        geometry = new WheelGeometry(showItems);
+        scroller = new WheelScroller(geometry);
+    }
+
+    /**
+     * @param physics 同WheelView.setFlingPhysics
+     */
+    public void setFlingPhysics(int physics) {
+        scroller.setPhysics(physics);
+    }
+
+    public void setOnItemSelectedListener(OnItemSelectedListener l) {
+        this.onItemSelectedListener = l;
+    }
+
+    /**
+     * @return 当前居中item的位置，滑动过程中为离中间最近的item。
+     */
+    public int getCurrentPosition() {
+        if (!geometry.isSized()) {
+            return pendingPosition;
+        }
+        return geometry.nearestIndex(scroller.getAccumDeg());
+    }
+
+    @Override
+    public RecyclerView.LayoutParams generateDefaultLayoutParams() {
+        return new RecyclerView.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT);
+    }
+
+    @Override
+    public boolean canScrollVertically() {
+        return true;
+    }
+
+    @Override
+    public void onAttachedToWindow(RecyclerView view) {
+        super.onAttachedToWindow(view);
+        recyclerView = view;
+        view.setOnFlingListener(onFlingListener);
+        view.addOnItemTouchListener(onItemTouchListener);
+    }
+
+    @Override
+    public void onDetachedFromWindow(RecyclerView view, RecyclerView.Recycler recycler) {
+        super.onDetachedFromWindow(view, recycler);
+        stopAnim();
+        view.setOnFlingListener(null);
+        view.removeOnItemTouchListener(onItemTouchListener);
+        recyclerView = null;
+    }
+
+    @Override
+    public void onLayoutChildren(RecyclerView.Recycler recycler, RecyclerView.State state) {
+        int itemCount = state.getItemCount();
+        float newProjectionY = (getHeight() - getPaddingTop() - getPaddingBottom()) / 2f;
+        if (itemCount == 0 || newProjectionY <= 0f) {
+            removeAndRecycleAllViews(recycler);
+            return;
+        }
+
+        int position = getCurrentPosition();
+        geometry.setItemCount(itemCount);
+        if (newProjectionY != projectionY) {
+            // radius changes with the height, the old distanceY is invalid.
+            stopAnim();
+            projectionY = newProjectionY;
+            geometry.setProjectionY(projectionY);
+            scroller.scrollToIndex(Math.min(position, itemCount - 1));
+        } else {
+            scroller.onItemCountChanged();
+        }
+        fill(recycler);
+    }
+
+    @Override
+    public int scrollVerticallyBy(int dy, RecyclerView.Recycler recycler, RecyclerView.State state) {
+        if (getChildCount() == 0 || !geometry.isSized()) {
+            return 0;
+        }
+        // dy > 0: finger moves up, to bigger index.
+        scroller.updateY(-dy);
+        if (geometry.firstSlotItemIndex(scroller.getAccumDeg()) != laidOutFirstIndex) {
+            fill(recycler);
+        } else {
+            transformChildren();
+        }
+        return dy;
+    }
+
+    @Override
+    public void onScrollStateChanged(int state) {
+        if (state == RecyclerView.SCROLL_STATE_DRAGGING) {
+            stopAnim();
+        } else if (state == RecyclerView.SCROLL_STATE_IDLE && !scroller.isAnimating()
+                && geometry.isSized() && getItemCount() > 0) {
+            startAnim(0f); // released without a fling, clamp to the nearest item.
+        }
+    }
+
+    @Override
+    public void scrollToPosition(int position) {
+        if (!geometry.isSized()) {
+            pendingPosition = position;
+        } else {
+            stopAnim();
+            scroller.scrollToIndex(position);
+        }
+        requestLayout();
+    }
+
+    @Override
+    public void smoothScrollToPosition(RecyclerView recyclerView, RecyclerView.State state,
+                                       int position) {
+        if (!geometry.isSized()) {
+            scrollToPosition(position);
+            return;
+        }
+        stopAnim();
+        scroller.scrollTo(position, DEFAULT_SCROLL_DURATION_MS / 1000f);
+        frameClock.addFrameListener(animFrameListener);
+    }
+
+    private void startAnim(float yVelocity) {
+        scroller.fling(yVelocity);
+        frameClock.addFrameListener(animFrameListener);
+    }
+
+    private void stopAnim() {
+        scroller.stop();
+        frameClock.removeFrameListener(animFrameListener);
+    }
+
+    /**
+     * 动画的每一帧：居中附近的item不变时只更新child的变换，否则重新布局以回收、添加child。
+     */
+    private void updateChildren() {
+        if (geometry.firstSlotItemIndex(scroller.getAccumDeg()) != laidOutFirstIndex) {
+            requestLayout();
+        } else {
+            transformChildren();
+        }
+    }
+
+    /**
+     * 与WheelView.drawWheelText相同，每个slot上放一个child，空位置和范围外的item不添加。
+     */
+    private void fill(RecyclerView.Recycler recycler) {
+        detachAndScrapAttachedViews(recycler);
+
+        float accumDeg = scroller.getAccumDeg();
+        laidOutFirstIndex = geometry.firstSlotItemIndex(accumDeg);
+        int itemCount = geometry.getItemCount();
+        int contentWidth = getWidth() - getPaddingLeft() - getPaddingRight();
+        int contentHeight = getHeight() - getPaddingTop() - getPaddingBottom();
+        for (int i = 1, slotCount = geometry.getSlotCount(); i <= slotCount; i++) {
+            int position = laidOutFirstIndex - 1 + i;
+            if (position < 0 || position >= itemCount) { // 两头的空位置
+                continue;
+            }
+            View child = recycler.getViewForPosition(position);
+            addView(child);
+            measureChildWithMargins(child, 0, 0);
+            int width = getDecoratedMeasuredWidth(child);
+            int height = getDecoratedMeasuredHeight(child);
+            int left = getPaddingLeft() + (contentWidth - width) / 2;
+            int top = getPaddingTop() + (contentHeight - height) / 2;
+            layoutDecoratedWithMargins(child, left, top, left + width, top + height);
+            transformChild(child, width, height, geometry.slotDeg(accumDeg, i));
+        }
+
+        // scrolled out of the wheel.
+        List<RecyclerView.ViewHolder> scrapList = recycler.getScrapList();
+        for (int i = scrapList.size() - 1; i >= 0; i--) {
+            recycler.recycleView(scrapList.get(i).itemView);
+        }
+    }
+
+    private void transformChildren() {
+        float accumDeg = scroller.getAccumDeg();
+        for (int i = 0, childCount = getChildCount(); i < childCount; i++) {
+            View child = getChildAt(i);
+            int slot = getPosition(child) - laidOutFirstIndex + 1;
+            transformChild(child, child.getWidth(), child.getHeight(),
+                    geometry.slotDeg(accumDeg, slot));
+        }
+    }
+
+    /**
+     * 把child变换到slotDeg位置，缩放和平移见WheelProjection.getViewTransform。
+     * View的缩放在rotationX之前，所以camera距离用 L-R，倾斜的透视与WheelView一致。
+     */
+    private void transformChild(View child, int width, int height, float slotDeg) {
+        float cameraDistance = geometry.getCameraDistance();
+        float wheelRadius = geometry.getWheelRadius();
+        WheelProjection.getViewTransform(slotDeg, wheelRadius, cameraDistance, viewTransform);
+        float scale = viewTransform[WheelProjection.VIEW_SCALE];
+
+        child.setPivotX(width / 2f);
+        child.setPivotY(height / 2f);
+        child.setScaleX(scale);
+        child.setScaleY(scale);
+        child.setTranslationY(viewTransform[WheelProjection.VIEW_TRANSLATION_Y]);
+        child.setRotationX(slotDeg);
+        // View.setCameraDistance: Camera units are 1/72 inch.
+        child.setCameraDistance((cameraDistance - wheelRadius)
+                * child.getResources().getDisplayMetrics().densityDpi / 72f);
+    }
+}
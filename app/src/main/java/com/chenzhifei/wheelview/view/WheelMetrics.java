@@ -0,0 +1,174 @@
+package com.chenzhifei.wheelview.view;
+
+import java.util.Arrays;
+
+/**
+ * WheelView的性能统计快照：各绘制阶段的耗时直方图，每种动画的步数、帧数和掉帧数。
+ * 用WheelView.getMetrics(out)复制得到，复制和记录都不分配内存。
+ */
+
+public class WheelMetrics {
+
+    public static final int SECTION_ON_DRAW = 0;
+    public static final int SECTION_DRAW_WHEEL_TEXT = 1;
+    public static final int SECTION_DRAW_LAYER = 2;
+    static final int SECTION_COUNT = 3;
+
+    public static final int ANIM_FLING = 0; // 惯性滑动
+    public static final int ANIM_CLAMP = 1; // 对齐到item，包括滑动到头后的回弹
+    public static final int ANIM_SCROLL_TO = 2; // smoothScrollToIndex, scrollToValue
+    static final int ANIM_KIND_COUNT = 3;
+
+    /**
+     * 耗时直方图的桶个数：第0个桶为 0 ~ 2微秒，第i个桶为 2^i ~ 2^(i+1)微秒，最后一个桶不设上限。
+     */
+    public static final int BUCKET_COUNT = 16;
+
+    private final long[] buckets = new long[SECTION_COUNT * BUCKET_COUNT];
+    private final long[] sectionCounts = new long[SECTION_COUNT];
+    private final long[] sectionTotalNanos = new long[SECTION_COUNT];
+    private final long[] sectionMaxNanos = new long[SECTION_COUNT];
+
+    private final long[] animCounts = new long[ANIM_KIND_COUNT];
+    private final long[] animSteps = new long[ANIM_KIND_COUNT];
+    private final long[] animFrames = new long[ANIM_KIND_COUNT];
+    private final long[] animDroppedFrames = new long[ANIM_KIND_COUNT];
+    private final long[] animTotalNanos = new long[ANIM_KIND_COUNT];
+
+    void recordSection(int section, long durationNanos) {
+        buckets[section * BUCKET_COUNT + bucketOf(durationNanos)]++;
+        sectionCounts[section]++;
+        sectionTotalNanos[section] += durationNanos;
+        if (durationNanos > sectionMaxNanos[section]) {
+            sectionMaxNanos[section] = durationNanos;
+        }
+    }
+
+    void recordAnimation(int kind, int steps, int frames, int droppedFrames, long durationNanos) {
+        animCounts[kind]++;
+        animSteps[kind] += steps;
+        animFrames[kind] += frames;
+        animDroppedFrames[kind] += droppedFrames;
+        animTotalNanos[kind] += durationNanos;
+    }
+
+    /**
+     * 复制other的所有数据。
+     */
+    public void set(WheelMetrics other) {
+        System.arraycopy(other.buckets, 0, buckets, 0, buckets.length);
+        System.arraycopy(other.sectionCounts, 0, sectionCounts, 0, SECTION_COUNT);
+        System.arraycopy(other.sectionTotalNanos, 0, sectionTotalNanos, 0, SECTION_COUNT);
+        System.arraycopy(other.sectionMaxNanos, 0, sectionMaxNanos, 0, SECTION_COUNT);
+        System.arraycopy(other.animCounts, 0, animCounts, 0, ANIM_KIND_COUNT);
+        System.arraycopy(other.animSteps, 0, animSteps, 0, ANIM_KIND_COUNT);
+        System.arraycopy(other.animFrames, 0, animFrames, 0, ANIM_KIND_COUNT);
+        System.arraycopy(other.animDroppedFrames, 0, animDroppedFrames, 0, ANIM_KIND_COUNT);
+        System.arraycopy(other.animTotalNanos, 0, animTotalNanos, 0, ANIM_KIND_COUNT);
+    }
+
+    public void reset() {
+        Arrays.fill(buckets, 0);
+        Arrays.fill(sectionCounts, 0);
+        Arrays.fill(sectionTotalNanos, 0);
+        Arrays.fill(sectionMaxNanos, 0);
+        Arrays.fill(animCounts, 0);
+        Arrays.fill(animSteps, 0);
+        Arrays.fill(animFrames, 0);
+        Arrays.fill(animDroppedFrames, 0);
+        Arrays.fill(animTotalNanos, 0);
+    }
+
+    /**
+     * @param section SECTION_ON_DRAW, SECTION_DRAW_WHEEL_TEXT, SECTION_DRAW_LAYER
+     * @return 记录的次数
+     */
+    public long getCount(int section) {
+        return sectionCounts[section];
+    }
+
+    public long getTotalNanos(int section) {
+        return sectionTotalNanos[section];
+    }
+
+    public long getMaxNanos(int section) {
+        return sectionMaxNanos[section];
+    }
+
+    /**
+     * @return 第bucket个桶的次数，桶的范围见BUCKET_COUNT
+     */
+    public long getBucketCount(int section, int bucket) {
+        return buckets[section * BUCKET_COUNT + bucket];
+    }
+
+    /**
+     * @return 第bucket个桶的上限，纳秒。最后一个桶返回Long.MAX_VALUE
+     */
+    public static long getBucketUpperBoundNanos(int bucket) {
+        return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : (2000L << bucket);
+    }
+
+    /**
+     * @param fraction 0 ~ 1，如0.95
+     * @return 百分位耗时所在桶的上限，纳秒，精度为桶的宽度。最后一个桶返回最大耗时。没有记录时返回0
+     */
+    public long getPercentileNanos(int section, float fraction) {
+        long count = sectionCounts[section];
+        if (count == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(count * Math.max(0f, Math.min(fraction, 1f)));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT - 1; i++) {
+            seen += buckets[section * BUCKET_COUNT + i];
+            if (seen >= target) {
+                return Math.min(getBucketUpperBoundNanos(i), sectionMaxNanos[section]);
+            }
+        }
+        return sectionMaxNanos[section];
+    }
+
+    /**
+     * @param kind ANIM_FLING, ANIM_CLAMP, ANIM_SCROLL_TO
+     * @return 完成或被打断的动画次数
+     */
+    public long getAnimationCount(int kind) {
+        return animCounts[kind];
+    }
+
+    /**
+     * @return 动画时钟回调的总次数
+     */
+    public long getAnimationSteps(int kind) {
+        return animSteps[kind];
+    }
+
+    /**
+     * @return 动画过程中实际绘制(onDraw)的总帧数
+     */
+    public long getAnimationFrames(int kind) {
+        return animFrames[kind];
+    }
+
+    /**
+     * @return 相邻两次动画回调之间超过一个vsync间隔而丢失的总帧数
+     */
+    public long getDroppedFrames(int kind) {
+        return animDroppedFrames[kind];
+    }
+
+    public long getAnimationTotalNanos(int kind) {
+        return animTotalNanos[kind];
+    }
+
+    // bucket i: [2^i, 2^(i+1)) microseconds, bucket 0 also holds [0, 1).
+    private static int bucketOf(long durationNanos) {
+        long micros = durationNanos / 1000;
+        if (micros <= 1) {
+            return 0;
+        }
+        int bucket = 63 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+}
@@ -2,25 +2,31 @@ package com.chenzhifei.wheelview.view;
 
 import android.content.Context;
 import android.content.res.TypedArray;
-import android.graphics.Camera;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.LinearGradient;
 import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Rect;
-import android.graphics.Shader;
-import android.os.Handler;
-import android.os.Message;
+import android.os.Build;
 import android.text.TextUtils;
 import android.util.AttributeSet;
+import android.view.Display;
 import android.view.View;
 
 import com.chenzhifei.wheelview.R;
+import com.chenzhifei.wheelview.adapter.ArrayWheelAdapter;
+import com.chenzhifei.wheelview.adapter.CharWheelAdapter;
+import com.chenzhifei.wheelview.adapter.MutableWheelAdapter;
+import com.chenzhifei.wheelview.adapter.PagedWheelAdapter;
+import com.chenzhifei.wheelview.adapter.ValueIndex;
+import com.chenzhifei.wheelview.adapter.WheelAdapter;
+import com.chenzhifei.wheelview.anim.FrameClock;
+import com.chenzhifei.wheelview.core.WheelGeometry;
+import com.chenzhifei.wheelview.core.WheelScroller;
 
 /**
  * Created by chenzhifei on 2017/6/25.
- * 使用Graphics.Camera实现WheelView的3D效果。
+ * 使用透视投影(与Graphics.Camera相同的模型)实现WheelView的3D效果。
  */
 
 public class WheelView extends View {
@@ -30,13 +36,23 @@ public class WheelView extends View {
     public static final int TEXT_ALIGN_RIGHT = 2;
     private int textAlign;
 
-    private static final float DEG_TO_RADIAN = (float) (Math.PI / 180.0f);
+    public static final int MEASURE_MODE_EXACT = 0;    // measure all items.
+    public static final int MEASURE_MODE_ESTIMATE = 1; // measure some items, then refine in background.
+    private int measureMode = MEASURE_MODE_EXACT;
 
-    private static final int WHEEL_VIEW_DEG = 120; // wheelview show angle
-    // distanceZ will lead to scale up or down the view.
-    private static final float PROJECTION_SCALED =
-            1/(1-(float)Math.cos((WHEEL_VIEW_DEG>>1)*DEG_TO_RADIAN));
-    private int interItemDeg; // deg between two adjacent items。
+    public static final int RENDER_MODE_TEXT = 0;         // drawText every frame.
+    public static final int RENDER_MODE_BITMAP_CACHE = 1; // draw cached bitmaps of the items.
+    private int renderMode = RENDER_MODE_TEXT;
+    private final ItemAtlas itemAtlas = new ItemAtlas();
+    private boolean drawFromAtlas; // RENDER_MODE_BITMAP_CACHE and the atlas fits, set in drawWheelText.
+
+    public static final int FLING_PHYSICS_STEPPED = WheelScroller.PHYSICS_STEPPED;   // decelerate, then clamp.
+    public static final int FLING_PHYSICS_ANALYTIC = WheelScroller.PHYSICS_ANALYTIC; // closed-form, lands on an item.
+
+    // index math, distance/deg conversion and slot angles. see WheelGeometry.
+    private WheelGeometry geometry;
+    // drag, fling and clamp physics. see WheelScroller.
+    private WheelScroller scroller;
 
     /**
      *              | y
@@ -52,47 +68,152 @@ public class WheelView extends View {
      *           -y |                |
      *              |________________|
      *
-     * camera model:
-     * default location: (0f, 0f, -8.0f), in pixels: -8.0f * 72 = -576f
+     * camera model: see WheelProjection.
+     * camera location: (0f, 0f, -cameraDistance), in pixels.
      */
-    private static final int CAMERA_LOCATION_Z_UNIT = 72;
-    private Camera camera = new Camera();
     private final Matrix cameraMatrix = new Matrix();
+    private final SlotMatrixTable slotMatrixTable = new SlotMatrixTable();
+    // items projected lower than this ratio of the centered one are drawn with an affine matrix.
+    private static final float DEFAULT_LOW_DETAIL_RATIO = 0f; // off, all items in perspective
+    private float lowDetailRatio = DEFAULT_LOW_DETAIL_RATIO;
     private final Paint paintText = new Paint(Paint.ANTI_ALIAS_FLAG);
-    private static final Paint paintTopLayer = new Paint();
-    private static final Paint paintBottomLayer = new Paint();
-    private static final int centerLayerColor = Color.parseColor("#00ffffff");
-    private static final int edgeLayerColor = Color.parseColor("#ddffffff");
+    private final EdgeFadeOverlay edgeFadeOverlay = new EdgeFadeOverlay();
+    private int fadeColor;     // color of the top and bottom edges.
+    private float fadeExtent;  // 0 ~ 1, gradient part of the edge layers.
 
-    private float wheelRadius; // wheelView item's distanceZ.
-    private float distanceToDeg = -1f; // will be set in onSizeChanged().
     private int initItemIndex = 0;
-    private float maxSlideDeg;
+
+    // what the last onDraw rendered, to skip redraws that have no visible effect.
+    private static final float DEFAULT_INVALIDATE_THRESHOLD = 0.25f; // pixels
+    private float invalidateThreshold = DEFAULT_INVALIDATE_THRESHOLD;
+    private float lastDrawnAccumDeg = Float.NaN;
+    private int lastDrawnIndex = -1;
+    private final Rect wheelBounds = new Rect(); // content bounds of the items, in view coordinates
 
     private int wheelViewWidth;
     private int wheelViewHeight;
     private int itemMaxWidth;
     private int itemMaxHeight;
+    private final ItemMeasurer itemMeasurer = new ItemMeasurer();
+    private final DataPreparer dataPreparer = new DataPreparer(itemMeasurer);
+    // prepared by prepareDataAsync, swapped in on the next frame.
+    private WheelAdapter preparedAdapter;
+    private int preparedItemMaxWidth;
+    private int preparedItemMaxHeight;
+    private float preparedTextSize;
+    private final DataPreparer.Callback prepareCallback = new DataPreparer.Callback() {
+        @Override
+        public void onPrepared(WheelAdapter adapter, int itemMaxWidth, int itemMaxHeight,
+                               float textSize) {
+            preparedAdapter = adapter;
+            preparedItemMaxWidth = itemMaxWidth;
+            preparedItemMaxHeight = itemMaxHeight;
+            preparedTextSize = textSize;
+            frameClock.addFrameListener(swapFrameListener);
+        }
+    };
+    private final Rect textRect = new Rect();
+
+    private WheelAdapter adapter;
+    private char[] charBuffer = new char[0]; // reused to draw CharWheelAdapter items.
+    private ValueIndex valueIndex; // optional, used by scrollToValue.
+    private boolean valueIndexStale; // the data changed after setValueIndex.
+    private static final int DEFAULT_SCROLL_DURATION_MS = 300;
+    private int firstVisibleIndex = 0; // updated in drawWheelText
+    private int lastVisibleIndex = -1;
+    private static final float PREFETCH_SECONDS = 0.5f; // PagedWheelAdapter: prefetch items passed in 0.5s.
+    private final PagedWheelAdapter.OnPageLoadedListener onPageLoadedListener =
+            new PagedWheelAdapter.OnPageLoadedListener() {
+        @Override
+        public void onPageLoaded(int start, int count) {
+            itemAtlas.invalidate(); // placeholders may be cached.
+            if (!geometry.isCyclic()
+                    && (start > lastVisibleIndex || start + count - 1 < firstVisibleIndex)) {
+                return; // not visible, no need to redraw.
+            }
+            invalidate();
 
-    private String[] itemArr;
-
-    private float distanceY = 0f; // camera's y axis direction is opposite to screen's.
+            int currIndex = getCurrentIndex();
+            if (!scroller.isAnimating() && currIndex >= start && currIndex < start + count
+                    && WheelView.this.stateValueListener != null) {
+                WheelView.this.stateValueListener.stateValue(currIndex, adapter.getItem(currIndex));
+            }
+        }
+    };
+
+    private MutableWheelAdapter mutableAdapter; // the adapter may be its "no data" placeholder.
+    private final MutableWheelAdapter.OnItemRangeChangedListener onItemRangeChangedListener =
+            new MutableWheelAdapter.OnItemRangeChangedListener() {
+        @Override
+        public void onItemRangeInserted(int start, int count) {
+            onItemRangeMutated(MUTATION_INSERT, start, count);
+        }
 
-    private static final float MIN_VELOCITY = 50f; // pixels/second
-    private float yVelocity = 0f;   // pixels/second
-    private boolean isInfinity = false;
-    private float yVelocityReduce = 50f; //decrease 50 pixels/second when a message is handled in the loop
-                        //loop frequency is 60hz or 120hz when handleMessage(msg) includes UI update code
+        @Override
+        public void onItemRangeRemoved(int start, int count) {
+            onItemRangeMutated(MUTATION_REMOVE, start, count);
+        }
 
-    private static final int RESISTANCE_FACTOR = 4; // valid updateY become 1/4 when is overscrolling.
-    private static final float CLAMP_MAX_MIN_DELTA_DEG = 2.0f; // 2.0°, four times as normal.
-    private static final float CLAMP_NORMAL_DELTA_DEG = 0.5f; // 0.5°/16.67ms ~ 30°/s, or twice
-    private float willToDeg = 0f;
+        @Override
+        public void onItemRangeChanged(int start, int count) {
+            onItemRangeMutated(MUTATION_CHANGE, start, count);
+        }
 
-    private Handler animHandler;
-    private static final int MSG_HANDLE_SLIDING = 0;
-    private static final int MSG_NORMAL_CLAMP = 1;
-    private static final int MSG_MAX_MIN_CLAMP = 2;
+        @Override
+        public void onItemMoved(int fromIndex, int toIndex) {
+            onItemRangeMutated(MUTATION_MOVE, fromIndex, toIndex);
+        }
+    };
+    private static final int MUTATION_INSERT = 0;
+    private static final int MUTATION_REMOVE = 1;
+    private static final int MUTATION_CHANGE = 2;
+    private static final int MUTATION_MOVE = 3;
+
+    private WheelInstrumentation instrumentation; // null unless setMetricsEnabled(true)
+
+    private FrameClock frameClock = new FrameClock();
+    private final FrameClock.FrameListener animFrameListener = new FrameClock.FrameListener() {
+        @Override
+        public boolean onFrame(long frameTimeNanos) {
+            int stateBefore = scroller.getState();
+            int result = scroller.doFrame(frameTimeNanos);
+            if (instrumentation != null) {
+                instrumentation.onAnimStep(frameTimeNanos, stateBefore, scroller.getState());
+            }
+            if (result == WheelScroller.FRAME_MOVED) {
+                invalidateIfMoved();
+            } else if (result == WheelScroller.FRAME_SETTLED) {
+                invalidateWheel(); // always draw the exact final position.
+            }
+            if (result != WheelScroller.FRAME_IDLE) {
+                dispatchScrollProgress();
+            }
+            if (result == WheelScroller.FRAME_SETTLED && WheelView.this.stateValueListener != null) {
+                int currIndex = geometry.nearestIndex(scroller.getAccumDeg());
+                WheelView.this.stateValueListener.stateValue(currIndex, adapter.getItem(currIndex));
+            }
+            return scroller.isAnimating();
+        }
+    };
+
+    // one-shot: coalesces the scroll changes between two frames into one dispatch.
+    private final FrameClock.FrameListener progressFrameListener = new FrameClock.FrameListener() {
+        @Override
+        public boolean onFrame(long frameTimeNanos) {
+            dispatchScrollProgress();
+            return false;
+        }
+    };
+    // one-shot: swaps in the data prepared by prepareDataAsync.
+    private final FrameClock.FrameListener swapFrameListener = new FrameClock.FrameListener() {
+        @Override
+        public boolean onFrame(long frameTimeNanos) {
+            swapPreparedData();
+            return false;
+        }
+    };
+    private int lastProgressIndex = -1;
+    private float lastProgressOffset = Float.NaN;
 
     public WheelView(Context context) {
         this(context, null);
@@ -106,163 +227,340 @@ public class WheelView extends View {
         super(context, attrs, defStyle);
 
         initAttrs(attrs);
-        animHandler = new Handler(new Handler.Callback() {
-            @Override
-            public boolean handleMessage(Message msg) {
-                switch (msg.what) {
-                    case MSG_HANDLE_SLIDING:
-                        handleAnimSliding();
-                        break;
-                    case MSG_NORMAL_CLAMP:
-                        clampItemDeg(CLAMP_NORMAL_DELTA_DEG, MSG_NORMAL_CLAMP);
-                        break;
-                    case MSG_MAX_MIN_CLAMP:
-                        clampItemDeg(CLAMP_MAX_MIN_DELTA_DEG, MSG_MAX_MIN_CLAMP);
-                        break;
-                }
-                return true;
-            }
-        });
     }
 
-    private void clampItemDeg(float clampDeltaDeg, int clampType) {
-        if (Math.abs(-distanceY*distanceToDeg - willToDeg) <= clampDeltaDeg) { // complete.
-            distanceY = -willToDeg / distanceToDeg;
+    private void initAttrs(AttributeSet attrs) {
+        TypedArray ta = getContext().obtainStyledAttributes(attrs, R.styleable.WheelView);
+        int showItems = ta.getInt(R.styleable.WheelView_showItems, 7);
+        float arcDeg = ta.getFloat(R.styleable.WheelView_wheelArcDeg, WheelGeometry.WHEEL_VIEW_DEG);
+        float wheelTextSize = ta.getDimension(R.styleable.WheelView_wheelTextSize, 32); //32 -> 16sp
+        int wheelTextColor = ta.getColor(R.styleable.WheelView_wheelTextColor, Color.parseColor("#333333"));
+        int textAlign = ta.getInt(R.styleable.WheelView_wheelTextAlign, TEXT_ALIGN_CENTER);
+        fadeColor = ta.getColor(R.styleable.WheelView_wheelFadeColor, Color.parseColor("#ddffffff"));
+        fadeExtent = Math.max(0f, Math.min(ta.getFloat(R.styleable.WheelView_wheelFadeExtent, 1f), 1f));
+        boolean cyclic = ta.getBoolean(R.styleable.WheelView_wheelCyclic, false);
+        ta.recycle();
+
+        init(showItems, arcDeg, wheelTextSize, wheelTextColor, textAlign);
+        geometry.setCyclic(cyclic);
+    }
+
+    private void init(int showItems, float arcDeg, float wheelTextSize, int wheelTextColor,
+                      int textAlign) {
+        geometry = new WheelGeometry(showItems, arcDeg);
+        scroller = new WheelScroller(geometry);
 
-            if (WheelView.this.stateValueListener != null) {
-                int currIndex = (int) (-distanceY * distanceToDeg / interItemDeg);
-                int arrIndex = currIndex + ((WHEEL_VIEW_DEG / interItemDeg) >> 1);
-                WheelView.this.stateValueListener.stateValue(currIndex, itemArr[arrIndex]);
-            }
-        } else { // continue clamp.
-            if (-distanceY*distanceToDeg < willToDeg) {        // go forward to next item.
-                distanceY -= clampDeltaDeg / distanceToDeg; // 'increase' distanceY.
-            } else if (-distanceY*distanceToDeg > willToDeg) { // go back to previous item.
-                distanceY += clampDeltaDeg / distanceToDeg; // 'decrease' distanceY.
-            }
-            WheelView.this.animHandler.sendEmptyMessage(clampType);
+        initData(new ArrayWheelAdapter(new String[]{"no data"}));
+        initPaintText(wheelTextSize, wheelTextColor, textAlign);
+        getMaxItemSize();
+    }
+
+    private void initData(WheelAdapter adapter) {
+        if (null == adapter) {
+            throw new NullPointerException("adapter can not be a null");
         }
-        invalidate();
+        if (mutableAdapter != null && mutableAdapter != adapter) {
+            mutableAdapter.removeOnItemRangeChangedListener(onItemRangeChangedListener);
+            mutableAdapter = null;
+        }
+        if (adapter instanceof MutableWheelAdapter) { // listen even when it is empty.
+            mutableAdapter = (MutableWheelAdapter) adapter;
+            mutableAdapter.addOnItemRangeChangedListener(onItemRangeChangedListener);
+        }
+        if (adapter.getCount() == 0) {
+            adapter = new ArrayWheelAdapter(new String[]{"no data"});
+        }
+        if (this.adapter instanceof PagedWheelAdapter && this.adapter != adapter) {
+            ((PagedWheelAdapter) this.adapter).setOnPageLoadedListener(null);
+        }
+        if (adapter instanceof PagedWheelAdapter) {
+            ((PagedWheelAdapter) adapter).setOnPageLoadedListener(onPageLoadedListener);
+        }
+        this.adapter = adapter;
+        valueIndexStale = true;
+        geometry.setItemCount(adapter.getCount());
+        if (adapter instanceof CharWheelAdapter
+                && charBuffer.length < ((CharWheelAdapter) adapter).getMaxItemLength()) {
+            charBuffer = new char[((CharWheelAdapter) adapter).getMaxItemLength()];
+        }
+    }
+
+    /**
+     * 设置wheelView的显示数据，可以在wheelview显示前设置，也可以在显示后设置。
+     * @param dataArr wheelView的数据源
+     */
+    public void setData(String[] dataArr) {
+        if (null == dataArr) {
+            throw new NullPointerException("dataArr can not be a null");
+        }
+        setAdapter(new ArrayWheelAdapter(dataArr));
     }
 
-    private void handleAnimSliding() {
-        // 先判断再updateY，就会有溢出效果：此次事件时判断成立，updateY后下次事件就会溢出。
-        if ((-distanceY*distanceToDeg) > maxSlideDeg) {// 向上滑动到头并溢出
-            yVelocity = 0f;
+    /**
+     * 设置wheelView的数据源，WheelView按索引直接读取，不拷贝数据。
+     * @param adapter wheelView的数据源
+     */
+    public void setAdapter(WheelAdapter adapter) {
+        cancelPrepareData();
+        initData(adapter);
+        getMaxItemSize();
+        itemAtlas.invalidate();
+        scrollToFirstItem();
+    }
 
-            willToDeg = maxSlideDeg; // 向下返回到maxSlideDeg
-            WheelView.this.animHandler.sendEmptyMessage(MSG_MAX_MIN_CLAMP);
+    /**
+     * 在后台线程准备数据(拷贝数组、测量所有item)，完成后在下一帧一次性替换数据源，
+     * 替换前进行中的滑动继续使用旧数据。替换后与setData相同，回到第一个item。
+     * 再次调用会取消还未完成的准备，setData、setAdapter、swapAdapter也会取消。
+     * @param dataArr wheelView的数据源，调用后可以修改
+     */
+    public void prepareDataAsync(String[] dataArr) {
+        if (null == dataArr) {
+            throw new NullPointerException("dataArr can not be a null");
+        }
+        cancelPrepareData();
+        dataPreparer.prepare(dataArr, null, paintText, prepareCallback);
+    }
+
+    /**
+     * 同prepareDataAsync(String[])。
+     * @param adapter wheelView的数据源，需要可以在后台线程读取
+     */
+    public void prepareDataAsync(WheelAdapter adapter) {
+        if (null == adapter) {
+            throw new NullPointerException("adapter can not be a null");
+        }
+        cancelPrepareData();
+        dataPreparer.prepare(null, adapter, paintText, prepareCallback);
+    }
 
-        } else if(-distanceY < 0f){ // 向下滑动到头并溢出
-            yVelocity = 0f;
+    /**
+     * 取消还未替换的prepareDataAsync，当前的数据源不变。
+     */
+    public void cancelPrepareData() {
+        dataPreparer.cancel();
+        preparedAdapter = null;
+        frameClock.removeFrameListener(swapFrameListener);
+    }
 
-            willToDeg = 0f; // 向上返回到0
-            WheelView.this.animHandler.sendEmptyMessage(MSG_MAX_MIN_CLAMP);
+    /**
+     * @return 是否有prepareDataAsync的数据还未替换
+     */
+    public boolean isPreparingData() {
+        return dataPreparer.isPreparing() || preparedAdapter != null;
+    }
 
-        } else {
-            decelerationSliding(); // 惯性滑动
+    private void swapPreparedData() {
+        WheelAdapter adapter = preparedAdapter;
+        if (adapter == null) {
+            return;
         }
+        preparedAdapter = null;
+        initData(adapter);
+        if (preparedTextSize == paintText.getTextSize()) {
+            itemMeasurer.cancel(); // an older estimate refinement.
+            itemMaxWidth = preparedItemMaxWidth;
+            itemMaxHeight = preparedItemMaxHeight;
+        } else { // text size changed while preparing.
+            getMaxItemSize();
+        }
+        itemAtlas.invalidate();
+        scrollToFirstItem();
     }
 
-    private void decelerationSliding() {
-        updateY(yVelocity * 0.0167f); // 0.0167 = 1/60/1000 ms
+    private void scrollToFirstItem() {
+        stopAnim();
 
-        if (Math.abs(yVelocity) <= MIN_VELOCITY) { // clamp item deg
-            yVelocity = 0f;
+        scroller.setDistanceY(0f);
+        invalidate();
+        scheduleScrollProgress();
 
-            float offsetDeg = -distanceY*distanceToDeg % interItemDeg;
-            float clampOffsetDeg = offsetDeg >= interItemDeg/2 ? interItemDeg-offsetDeg : -offsetDeg;
+        if (WheelView.this.stateValueListener != null) {
+            WheelView.this.stateValueListener.stateValue(0, this.adapter.getItem(0));
+        }
+    }
 
-            int index = (int)(-distanceY*distanceToDeg / interItemDeg);
-            willToDeg = clampOffsetDeg > 0f ? (index+1)*interItemDeg : index*interItemDeg;
+    public WheelAdapter getAdapter() {
+        return adapter;
+    }
 
-            WheelView.this.animHandler.sendEmptyMessage(MSG_NORMAL_CLAMP);
+    /**
+     * 替换数据源，但保持当前居中的索引，进行中的滑动也会继续。
+     * 当前索引超出新数据的范围时，停在最后一个item。用于联动的多列WheelView。
+     * @param adapter wheelView的新数据源
+     */
+    public void swapAdapter(WheelAdapter adapter) {
+        cancelPrepareData();
+        int currIndex = getCurrentIndex();
+        initData(adapter);
+        getMaxItemSize();
+        itemAtlas.invalidate();
+
+        int count = this.adapter.getCount();
+        if (currIndex < count) { // 当前位置仍然有效
+            scroller.onItemCountChanged();
+            invalidate();
             return;
         }
 
-        if (WheelView.this.isInfinity) {
-            animHandler.sendEmptyMessage(MSG_HANDLE_SLIDING);
-
+        stopAnim();
+        if (!geometry.isSized()) {
+            initItemIndex = count - 1;
         } else {
-            // decrease the velocities.
-            // 'Math.abs(yVelocity) <= yVelocityReduce' make sure the yVelocity will be 0 finally.
-            yVelocity = Math.abs(yVelocity) <= yVelocityReduce ? 0f :
-                    (yVelocity > 0 ? yVelocity - yVelocityReduce : yVelocity + yVelocityReduce);
+            scroller.scrollToIndex(count - 1);
+            invalidate();
+            scheduleScrollProgress();
+        }
 
-            animHandler.sendEmptyMessage(MSG_HANDLE_SLIDING);
+        if (WheelView.this.stateValueListener != null) {
+            WheelView.this.stateValueListener.stateValue(count - 1, this.adapter.getItem(count - 1));
         }
     }
 
-    private void initAttrs(AttributeSet attrs) {
-        TypedArray ta = getContext().obtainStyledAttributes(attrs, R.styleable.WheelView);
-        int showItems = ta.getInt(R.styleable.WheelView_showItems, 7);
-        float wheelTextSize = ta.getDimension(R.styleable.WheelView_wheelTextSize, 32); //32 -> 16sp
-        int wheelTextColor = ta.getColor(R.styleable.WheelView_wheelTextColor, Color.parseColor("#333333"));
-        int textAlign = ta.getInt(R.styleable.WheelView_wheelTextAlign, TEXT_ALIGN_CENTER);
-        ta.recycle();
+    /**
+     * MutableWheelAdapter局部修改后调用：只测量新的item，平移当前位置使居中的item保持不变，
+     * 进行中的滑动继续，目标item还在时仍停在它上面。居中的item被删除时，居中删除范围之后的第一个item。
+     * @param arg MUTATION_MOVE时为toIndex，否则为item个数
+     */
+    private void onItemRangeMutated(int mutation, int start, int arg) {
+        if (adapter != mutableAdapter || mutableAdapter.getCount() == 0) {
+            setAdapter(mutableAdapter); // from or to the "no data" placeholder.
+            return;
+        }
 
-        init(showItems, wheelTextSize, wheelTextColor, textAlign);
-    }
+        int currIndex = getCurrentIndex();
+        // scrollTo and analytic flings land on an item, follow it to its new index.
+        int target = mapMutatedIndex(scroller.getPredictedIndex(), mutation, start, arg);
+        int newIndex = mapMutatedIndex(currIndex, mutation, start, arg);
+        boolean centerChanged = newIndex < 0
+                || (mutation == MUTATION_CHANGE && currIndex >= start && currIndex < start + arg);
+        if (newIndex < 0) { // the centered item is removed.
+            newIndex = start;
+        }
 
-    private void init(int showItems, float wheelTextSize, int wheelTextColor, int textAlign) {
-        if (showItems < 0 || showItems > 11 || showItems%2 == 0) {
-            throw new IllegalArgumentException("showItems only can be 1, 3, 5, 7, 9, 11");
+        valueIndexStale = true;
+        int oldCount = geometry.getItemCount();
+        int count = adapter.getCount();
+        geometry.setItemCount(count);
+        newIndex = Math.min(newIndex, count - 1);
+        if (mutation == MUTATION_INSERT || mutation == MUTATION_CHANGE) {
+            measureItemRange(start, arg);
         }
-        interItemDeg = WHEEL_VIEW_DEG / (showItems+1);
+        itemAtlas.invalidate(); // cells are cached by index.
 
-        initData(new String[]{"no data"});
-        initPaintText(wheelTextSize, wheelTextColor, textAlign);
-        getMaxItemSize();
+        if (!geometry.isSized()) {
+            initItemIndex = newIndex;
+        } else {
+            scroller.onItemsMutated(oldCount, currIndex, newIndex);
+            // the target item moved differently from the centered one.
+            if (target >= 0 && scroller.getPredictedIndex() != target) {
+                if (scroller.getState() == WheelScroller.STATE_SCROLL_TO) {
+                    scroller.scrollTo(target, DEFAULT_SCROLL_DURATION_MS / 1000f);
+                } else {
+                    scroller.retargetFling(target);
+                    if (flingTargetListener != null) {
+                        flingTargetListener.onFlingTarget(target);
+                    }
+                }
+            }
+            scheduleScrollProgress();
+        }
+        invalidate();
+
+        if ((centerChanged || newIndex != currIndex) && !scroller.isAnimating()
+                && WheelView.this.stateValueListener != null) {
+            WheelView.this.stateValueListener.stateValue(newIndex, adapter.getItem(newIndex));
+        }
     }
 
-    private void initData(String[] dataArr) {
-        if (null == dataArr) {
-            throw new NullPointerException("dataArr can not be a null");
+    /**
+     * @return 修改前index位置的item修改后的索引，被删除时返回-1
+     */
+    private static int mapMutatedIndex(int index, int mutation, int start, int arg) {
+        if (index < 0) {
+            return -1;
         }
-        if (dataArr.length == 0) {
-            dataArr = new String[]{"no data"};
+        switch (mutation) {
+            case MUTATION_INSERT:
+                return index >= start ? index + arg : index;
+            case MUTATION_REMOVE:
+                if (index >= start + arg) {
+                    return index - arg;
+                }
+                return index >= start ? -1 : index;
+            case MUTATION_MOVE:
+                if (index == start) {
+                    return arg;
+                }
+                if (start < index && index <= arg) {
+                    return index - 1;
+                }
+                if (arg <= index && index < start) {
+                    return index + 1;
+                }
+                return index;
+            default:
+                return index;
         }
+    }
 
-        int extra = WHEEL_VIEW_DEG / interItemDeg;
-        itemArr = new String[dataArr.length + extra];
-        int offset = extra / 2;
-        for (int i = 0; i < offset; i++) {
-            itemArr[i] = "";
+    /**
+     * 只测量新的item，比当前最大的item宽时更新最大尺寸。删除item不会缩小最大尺寸。
+     */
+    private void measureItemRange(int start, int count) {
+        if (adapter.getItemWidth(paintText) >= 0) {
+            return;
         }
-        for (int i = offset; i < itemArr.length - offset; i++) {
-            itemArr[i] = dataArr[i - offset];
+        boolean grown = false;
+        for (int i = start; i < start + count; i++) {
+            itemMeasurer.measureItem(adapter.getItem(i), paintText, textRect);
+            if (textRect.width() > itemMaxWidth) {
+                itemMaxWidth = textRect.width();
+                itemMaxHeight = textRect.height();
+                grown = true;
+            }
         }
-        for (int i = itemArr.length - offset; i < itemArr.length; i++) {
-            itemArr[i] = "";
+        if (grown) {
+            itemMeasurer.cancel(); // an older estimate refinement may be smaller.
         }
-        /**
-         * itemArr.length-1: item --- item --- item, 3 - 1 = 2
-         *  0                                            max deg
-         * |-------<--WHEEL_VIEW_DEG-->--------------------|
-         */
-        maxSlideDeg = interItemDeg*(itemArr.length-1) - WHEEL_VIEW_DEG;
     }
 
     /**
-     * 设置wheelView的显示数据，可以在wheelview显示前设置，也可以在显示后设置。
-     * @param dataArr wheelView的数据源
+     * @return 当前居中item的索引，滑动过程中为离中间最近的item。
      */
-    public void setData(String[] dataArr) {
-        initData(dataArr);
-        getMaxItemSize();
-
-        yVelocity = 0f;
-        if (null != animHandler) {
-            animHandler.removeCallbacksAndMessages(null);
+    public int getCurrentIndex() {
+        if (!geometry.isSized()) {
+            return initItemIndex;
         }
+        return geometry.nearestIndex(scroller.getAccumDeg());
+    }
 
-        distanceY = 0f;
-        invalidate();
+    public FrameClock getFrameClock() {
+        return frameClock;
+    }
 
-        if (WheelView.this.stateValueListener != null) {
-            int extra = WHEEL_VIEW_DEG / interItemDeg;
-            WheelView.this.stateValueListener.stateValue(0, itemArr[extra/2]);
+    /**
+     * 多个WheelView可以共用一个动画时钟，见WheelGroup。
+     * 回放或测试时可以设置FrameClock.createManual()创建的手动时钟。
+     */
+    public void setFrameClock(FrameClock frameClock) {
+        boolean animating = this.frameClock.hasFrameListener(animFrameListener);
+        boolean progressPending = this.frameClock.hasFrameListener(progressFrameListener);
+        boolean swapPending = this.frameClock.hasFrameListener(swapFrameListener);
+        this.frameClock.removeFrameListener(animFrameListener);
+        this.frameClock.removeFrameListener(progressFrameListener);
+        this.frameClock.removeFrameListener(swapFrameListener);
+        this.frameClock = frameClock;
+        if (animating) {
+            frameClock.addFrameListener(animFrameListener);
         }
+        if (progressPending) {
+            frameClock.addFrameListener(progressFrameListener);
+        }
+        if (swapPending) {
+            frameClock.addFrameListener(swapFrameListener);
+        }
+        updateRefreshRate(); // a new clock takes the display's frame interval once attached.
     }
 
     private void initPaintText(float textSize, int textColor, int textAlign) {
@@ -271,7 +569,7 @@ public class WheelView extends View {
         }
 
         if (textSize > 0) {
-            paintText.setTextSize(textSize/ PROJECTION_SCALED);
+            paintText.setTextSize(textSize/ geometry.getCenterScale());
         }
 
         this.textAlign = textAlign;
@@ -306,8 +604,27 @@ public class WheelView extends View {
         if (textAlign < 0) { // 初始化的时候不会小于0，只能是用户后来设置的。
             textAlign = this.textAlign;
         }
+        float oldTextSize = paintText.getTextSize();
         initPaintText(textSize, textColor, textAlign);
-        getMaxItemSize();
+        if (paintText.getTextSize() != oldTextSize) { // 颜色、对齐方式不影响item尺寸，不用重新测量。
+            getMaxItemSize();
+        }
+        itemAtlas.invalidate();
+        invalidate();
+    }
+
+    /**
+     * 设置item的绘制方式。
+     * @param renderMode WheelView.RENDER_MODE_TEXT: 每帧绘制文字;
+     *                   WheelView.RENDER_MODE_BITMAP_CACHE: 每个item只绘制一次文字到位图缓存，
+     *                   之后每帧绘制位图，适合长列表快速滑动。item太大、位图缓存放不下
+     *                   同时显示的item时仍然绘制文字。
+     */
+    public void setRenderMode(int renderMode) {
+        this.renderMode = renderMode;
+        if (renderMode != RENDER_MODE_BITMAP_CACHE) {
+            itemAtlas.release();
+        }
         invalidate();
     }
 
@@ -337,26 +654,62 @@ public class WheelView extends View {
     }
 
     private void getMaxItemSize() {
-        Rect textRect = new Rect();
-        itemMaxWidth = itemMaxHeight = 0;
-        for (String item : itemArr) {
-            paintText.getTextBounds(item, 0, item.length(), textRect);
-            if (textRect.width() > itemMaxWidth) {
-                itemMaxWidth = textRect.width();
-                itemMaxHeight = textRect.height();
+        int fixedItemWidth = adapter.getItemWidth(paintText);
+        if (fixedItemWidth >= 0) { // 宽度固定，只测量一个item得到高度。
+            itemMeasurer.cancel();
+            if (adapter instanceof CharWheelAdapter) {
+                int length = ((CharWheelAdapter) adapter).getItemChars(0, charBuffer);
+                itemMeasurer.measureItemChars(charBuffer, length, paintText, textRect);
+            } else {
+                itemMeasurer.measureItem(adapter.getItem(0), paintText, textRect);
             }
+            itemMaxWidth = fixedItemWidth;
+            itemMaxHeight = textRect.height();
+            return;
         }
+
+        if (measureMode == MEASURE_MODE_ESTIMATE) {
+            itemMeasurer.estimate(adapter, paintText, textRect, new ItemMeasurer.RefineCallback() {
+                @Override
+                public void onRefined(int itemMaxWidth, int itemMaxHeight) {
+                    WheelView.this.itemMaxWidth = itemMaxWidth;
+                    WheelView.this.itemMaxHeight = itemMaxHeight;
+                    invalidate();
+                }
+            });
+        } else {
+            itemMeasurer.measure(adapter, paintText, textRect);
+        }
+        itemMaxWidth = textRect.width();
+        itemMaxHeight = textRect.height();
     }
 
-    private void setPaintLayer() {
-        // 尺寸并没有严格按照位置来设置，不影响观感即可
-        LinearGradient topLg = new LinearGradient(0, -(wheelViewHeight>>1), 0, 0,
-                edgeLayerColor, centerLayerColor, Shader.TileMode.MIRROR);
-        LinearGradient bottomLg = new LinearGradient(0, 0, 0, wheelViewHeight>>1,
-                centerLayerColor, edgeLayerColor, Shader.TileMode.MIRROR);
+    /**
+     * 设置item尺寸的测量方式，在setData之前设置。
+     * @param measureMode WheelView.MEASURE_MODE_EXACT: 测量所有item;
+     *                    WheelView.MEASURE_MODE_ESTIMATE: 只测量部分item，其余的在后台线程测量，
+     *                    此时adapter需要可以在后台线程读取。
+     */
+    public void setMeasureMode(int measureMode) {
+        this.measureMode = measureMode;
+    }
 
-        paintTopLayer.setShader(topLg);
-        paintBottomLayer.setShader(bottomLg);
+    /**
+     * 设置上下两端渐变遮罩的颜色
+     * @param fadeColorStr 字符串形式的颜色，如"#ddffffff"，通常与背景色相同。
+     */
+    public void setEdgeFadeColor(String fadeColorStr) {
+        this.fadeColor = Color.parseColor(fadeColorStr);
+        invalidate();
+    }
+
+    /**
+     * 设置上下两端渐变遮罩中渐变部分的比例
+     * @param fadeExtent 0 ~ 1，0表示没有渐变，两端直接为遮罩颜色；1表示从两端一直渐变到居中item附近。
+     */
+    public void setEdgeFadeExtent(float fadeExtent) {
+        this.fadeExtent = Math.max(0f, Math.min(fadeExtent, 1f));
+        invalidate();
     }
 
     /**
@@ -364,41 +717,191 @@ public class WheelView extends View {
      * @param index 要居中显示的item的索引。
      */
     public void setItem(int index) {
-        int extra = WHEEL_VIEW_DEG / interItemDeg;
-        if (index < 0 || index > itemArr.length - extra) {
+        if (index < 0 || index >= adapter.getCount()) {
             throw new ArrayIndexOutOfBoundsException(index);
         }
 
-        yVelocity = 0f;
-        if (null != animHandler) {
-            animHandler.removeCallbacksAndMessages(null);
-        }
+        stopAnim();
 
-        if (distanceToDeg == -1f) {
+        if (!geometry.isSized()) {
             //外界在WheelView显示之前setItem时，distanceToDeg还未进行有效设置
             initItemIndex = index;
         } else {
-            distanceY = -index * interItemDeg / distanceToDeg;
-            invalidate();
+            scroller.scrollToIndex(index);
+            invalidateIfMoved();
+            scheduleScrollProgress();
         }
 
         if (WheelView.this.stateValueListener != null) {
-            WheelView.this.stateValueListener.stateValue(index, itemArr[index + extra/2]);
+            WheelView.this.stateValueListener.stateValue(index, adapter.getItem(index));
         }
     }
 
     /**
-     * 设置wheelview的滑动速率衰减
-     * @param yVelocityReduce 1.3°/s 角度每秒
+     * 动画滚动到index位置的item。无论距离多远，动画时间都不超过maxDurationMs：
+     * 距离较远时先直接跳到目标附近，只有最后约两屏的item有滚动动画。
+     * @param index         要居中显示的item的索引
+     * @param maxDurationMs 动画的最长时间，毫秒
      */
-    public void setYVelocityReduce(float yVelocityReduce) {
-        if (yVelocityReduce <= 0f) {
-            this.isInfinity = true;
-            this.yVelocityReduce = 0f;
+    public void smoothScrollToIndex(int index, int maxDurationMs) {
+        if (index < 0 || index >= adapter.getCount()) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        if (!geometry.isSized() || maxDurationMs <= 0) {
+            setItem(index);
+            return;
+        }
+
+        stopAnim();
+        scroller.scrollTo(index, maxDurationMs / 1000f);
+        frameClock.addFrameListener(animFrameListener);
+        invalidateIfMoved();
+        scheduleScrollProgress();
+    }
+
+    /**
+     * 设置按值查找item的索引，见HashValueIndex、SortedValueIndex。在setData、setAdapter之后设置，
+     * 之后数据再变化(包括MutableWheelAdapter的修改)时索引过期，scrollToValue改为线性查找，直到重新设置。
+     * @param valueIndex null表示scrollToValue时线性查找
+     */
+    public void setValueIndex(ValueIndex valueIndex) {
+        this.valueIndex = valueIndex;
+        valueIndexStale = false;
+    }
+
+    /**
+     * 动画滚动到值为value的item，有ValueIndex时用索引查找，找不到时直接返回false；
+     * 没有ValueIndex或索引已过期时线性查找。
+     * @return 没有找到value时返回false，位置不变
+     */
+    public boolean scrollToValue(String value) {
+        int index;
+        if (valueIndex != null && !valueIndexStale) {
+            index = valueIndex.indexOf(value);
+            // a hit still has to match, an index that disagrees with the data is stale after all.
+            if (index >= 0 && (index >= adapter.getCount() || !adapter.getItem(index).equals(value))) {
+                valueIndexStale = true;
+                index = linearIndexOf(value);
+            }
+        } else {
+            index = linearIndexOf(value);
+        }
+        if (index < 0) {
+            return false;
+        }
+        smoothScrollToIndex(index, DEFAULT_SCROLL_DURATION_MS);
+        return true;
+    }
+
+    private int linearIndexOf(String value) {
+        for (int i = 0, count = adapter.getCount(); i < count; i++) {
+            if (adapter.getItem(i).equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 设置循环模式：最后一个item之后接着第一个item，可以无限滑动，如分钟、小时。
+     * 数据只需要一份，不用重复多次。当前居中的item保持不变。
+     */
+    public void setCyclic(boolean cyclic) {
+        if (cyclic == geometry.isCyclic()) {
+            return;
+        }
+        int currIndex = getCurrentIndex();
+        stopAnim();
+        geometry.setCyclic(cyclic);
+        if (geometry.isSized()) {
+            scroller.scrollToIndex(currIndex);
+        }
+        invalidate();
+    }
+
+    public boolean isCyclic() {
+        return geometry.isCyclic();
+    }
+
+    /**
+     * 设置同时显示的item个数，当前居中的item保持不变。
+     * item很多时两头压缩明显的item可以用简化的方式绘制，见setLowDetailRatio。
+     * @param showItems 1 ~ WheelGeometry.MAX_SHOW_ITEMS之间的奇数
+     */
+    public void setShowItems(int showItems) {
+        if (showItems == geometry.getShowItems()) {
+            return;
+        }
+        int currIndex = getCurrentIndex();
+        stopAnim();
+        geometry.setShowItems(showItems);
+        onGeometryChanged(currIndex);
+    }
+
+    /**
+     * 设置滚轮显示的弧度，当前居中的item和居中item的字体大小保持不变。
+     * @param arcDeg WheelGeometry.MIN_WHEEL_VIEW_DEG ~ WheelGeometry.MAX_WHEEL_VIEW_DEG，
+     *               默认WheelGeometry.WHEEL_VIEW_DEG(120°)。弧度越大，两头的item越扁
+     */
+    public void setWheelArc(float arcDeg) {
+        if (arcDeg == geometry.getWheelViewDeg()) {
+            return;
+        }
+        int currIndex = getCurrentIndex();
+        stopAnim();
+        float oldCenterScale = geometry.getCenterScale();
+        geometry.setWheelViewDeg(arcDeg);
+        paintText.setTextSize(paintText.getTextSize() * oldCenterScale / geometry.getCenterScale());
+        getMaxItemSize();
+        onGeometryChanged(currIndex);
+    }
+
+    private void onGeometryChanged(int currIndex) {
+        if (geometry.isSized()) {
+            scroller.scrollToIndex(currIndex);
         } else {
-            this.isInfinity = false;
-            this.yVelocityReduce = yVelocityReduce;
+            initItemIndex = currIndex;
         }
+        itemAtlas.invalidate();
+        invalidate();
+        scheduleScrollProgress();
+    }
+
+    /**
+     * 设置简化绘制的阈值：投影后的高度小于居中item的ratio倍时，用不带透视的仿射矩阵绘制，
+     * 文字可以使用字形缓存，不用逐个字形透视绘制。showItems较大(如15以上)时两头的item很多，
+     * 设置为0.3 ~ 0.4可以明显减少绘制时间。高度在ratio ~ 1.5*ratio之间的item从透视逐渐过渡到仿射。
+     * @param ratio 0 ~ 1，默认0，所有item都按透视绘制
+     */
+    public void setLowDetailRatio(float ratio) {
+        this.lowDetailRatio = Math.max(0f, Math.min(ratio, 1f));
+        invalidate();
+    }
+
+    /**
+     * 设置wheelview的滑动速率衰减
+     * @param yVelocityReduce 每1/60秒减少的速度，像素/秒，按实际帧间隔换算。小于等于0表示不衰减。
+     */
+    public void setYVelocityReduce(float yVelocityReduce) {
+        scroller.setYVelocityReduce(yVelocityReduce);
+    }
+
+    /**
+     * 设置惯性滑动的计算方式。
+     * @param flingPhysics WheelView.FLING_PHYSICS_STEPPED: 速度逐帧衰减，停止后再对齐到item;
+     *                     WheelView.FLING_PHYSICS_ANALYTIC: 手指离开时就算出停止的item，
+     *                     速度按指数衰减并直接停在item上，同时回调FlingTargetListener。
+     */
+    public void setFlingPhysics(int flingPhysics) {
+        scroller.setPhysics(flingPhysics);
+    }
+
+    /**
+     * FLING_PHYSICS_ANALYTIC的速度衰减时间常数，默认0.35秒，越大滑得越远。
+     * @param seconds 大于0
+     */
+    public void setFlingTimeConstant(float seconds) {
+        scroller.setFlingTimeConstant(seconds);
     }
 
     /**
@@ -406,19 +909,31 @@ public class WheelView extends View {
      * @param movedY 相邻两次MotionEvent事件之间手指滑动的像素值
      */
     public void updateY(float movedY) {
-        if (-distanceY*distanceToDeg > maxSlideDeg || -distanceY < 0f) {
-            movedY /= RESISTANCE_FACTOR;
-        }
+        scroller.updateY(movedY);
+        invalidateIfMoved();
+        scheduleScrollProgress();
+    }
 
-        distanceY += movedY;
-        invalidate();
+    /**
+     * 同updateY(float)，并提供这次移动对应的输入事件时间，手指离开后的惯性滑动从这个时间开始计算。
+     * @param movedY          手指滑动的像素值，可以是一帧内多个MotionEvent合并的值
+     * @param eventTimeMillis 最新的MotionEvent.getEventTime()
+     */
+    public void updateY(float movedY, long eventTimeMillis) {
+        scroller.updateY(movedY, eventTimeMillis * 1000000L);
+        invalidateIfMoved();
+        scheduleScrollProgress();
     }
 
     /**
      * 手指接触屏幕(down事件)时调用。
      */
     public void stopAnim() {
-        animHandler.removeCallbacksAndMessages(null);
+        if (instrumentation != null && scroller.isAnimating()) {
+            instrumentation.onAnimStopped();
+        }
+        scroller.stop();
+        frameClock.removeFrameListener(animFrameListener);
     }
 
     /**
@@ -426,9 +941,13 @@ public class WheelView extends View {
      * @param yVelocity 手指离开屏幕时的滑动速度，可为0
      */
     public void startAnim(float yVelocity) {
-        this.yVelocity = yVelocity;
+        scroller.fling(yVelocity);
+        frameClock.addFrameListener(animFrameListener);
 
-        animHandler.sendEmptyMessage(MSG_HANDLE_SLIDING);
+        int predictedIndex = scroller.getPredictedIndex();
+        if (predictedIndex >= 0 && flingTargetListener != null) {
+            flingTargetListener.onFlingTarget(predictedIndex);
+        }
     }
 
     @Override
@@ -436,21 +955,19 @@ public class WheelView extends View {
         wheelViewWidth = w; // params value is in pixels not dp
         wheelViewHeight = h;
         float projectionY = (h - getPaddingTop() - getPaddingBottom()) / 2f;
-
-        wheelRadius = projectionY * (float) Math.sin((WHEEL_VIEW_DEG>>1) * DEG_TO_RADIAN);
-        distanceToDeg = 30f / wheelRadius; // wheelRadius --> 30°
-
-        float cameraLocationZ = PROJECTION_SCALED*wheelRadius / CAMERA_LOCATION_Z_UNIT;
-        camera.setLocation(0, 0, -cameraLocationZ);
+        geometry.setProjectionY(projectionY);
 
         setItem(initItemIndex);
         initItemIndex = 0; // 如果想不销毁wheelview重新进行relayout，radius会变化，之前的distanceY将无效。
-
-        setPaintLayer();
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
+        long onDrawStart = 0;
+        if (instrumentation != null) {
+            instrumentation.onFrameDrawn();
+            onDrawStart = instrumentation.beginSection(WheelMetrics.SECTION_ON_DRAW);
+        }
         float canvasTranslateX, textTranslateX, textOriginX;
         switch (textAlign) {
             case TEXT_ALIGN_CENTER:
@@ -477,90 +994,178 @@ public class WheelView extends View {
         // translate canvas in order to locate the maxItem in the left/center/right of the WheelView
         int wheelViewH = wheelViewHeight - getPaddingTop() - getPaddingBottom();
         float canvasTranslateY = (wheelViewH-itemMaxHeight)/2 + getPaddingTop();
+        updateWheelBounds(canvasTranslateX, textTranslateX);
+        lastDrawnAccumDeg = scroller.getAccumDeg();
+        lastDrawnIndex = geometry.nearestIndex(lastDrawnAccumDeg);
+        canvas.save();
         canvas.translate(canvasTranslateX, canvasTranslateY);
 
-        drawWheelText(canvas, textTranslateX, textOriginX);
+        if (instrumentation == null) {
+            drawWheelText(canvas, textTranslateX, textOriginX);
+        } else {
+            long start = instrumentation.beginSection(WheelMetrics.SECTION_DRAW_WHEEL_TEXT);
+            drawWheelText(canvas, textTranslateX, textOriginX);
+            instrumentation.endSection(WheelMetrics.SECTION_DRAW_WHEEL_TEXT, start);
+        }
+        canvas.restore();
 
-        drawLayer(canvas);
+        if (instrumentation == null) {
+            drawLayer(canvas, canvasTranslateY);
+        } else {
+            long start = instrumentation.beginSection(WheelMetrics.SECTION_DRAW_LAYER);
+            drawLayer(canvas, canvasTranslateY);
+            instrumentation.endSection(WheelMetrics.SECTION_DRAW_LAYER, start);
+            instrumentation.endSection(WheelMetrics.SECTION_ON_DRAW, onDrawStart);
+        }
     }
 
-    private void drawWheelText(Canvas canvas, float textTranslateX, float textOriginX) {
-        float accumDeg = -distanceY * distanceToDeg;
-        float driveDeg = accumDeg % interItemDeg; // 0 ~ interItemDeg，当向下滑动到头时，会变为负值。
-        /**
-         * 每转动x度循环一次。
-         * 9个位置，两头的两个位置刚好斜切，不显示。
-         *   不显示   60   45   30   15    0   -15  -30  -45  -60  不显示
-         *  ----------\----\----\----\----\----\----\----\----\----------
-         *   初始化    !    \    \    \    \    \    \    \    !    7个  0 !：刚好斜切，不显示。
-         *   驱动范围：
-         *           <--  \    \    \    \    \    \    \    \     8个  1
-         *          <--  \    \    \    \    \    \    \    \      8个  2
-         *         <--  \    \    \    \    \    \    \    \       8个  3
-         *        <--  \    \    \    \    \    \    \    \        8个  4
-         *   重复：
-         *       <--  !    \    \    \    \    \    \    \    !    7个  0
-         *           <--  \    \    \    \    \    \    \    \     8个  1
-         *           ... ...
-         */
-        driveDeg += WHEEL_VIEW_DEG>>1; // 60 ~ 60+x
-        for (int i = 1, length = WHEEL_VIEW_DEG/interItemDeg; i <= length; i++) {
-            setCameraMatrixAtIndex(driveDeg - i*interItemDeg, textTranslateX);
-            drawTextAtIndex(canvas, (int)(accumDeg/interItemDeg) + i, textOriginX);
+    /**
+     * items are scaled around textTranslateX, the centered one is the biggest:
+     * cameraDistance / (cameraDistance - wheelRadius) times.
+     */
+    private void updateWheelBounds(float canvasTranslateX, float textTranslateX) {
+        float cameraDistance = geometry.getCameraDistance();
+        float scale = cameraDistance / (cameraDistance - geometry.getWheelRadius());
+        float pivotX = canvasTranslateX + textTranslateX;
+        int margin = 2; // anti-aliased edges
+        int left = (int) Math.floor(pivotX - scale * textTranslateX) - margin;
+        int right = (int) Math.ceil(pivotX + scale * (itemMaxWidth - textTranslateX)) + margin;
+        wheelBounds.set(Math.max(0, left), 0, Math.min(right, wheelViewWidth), wheelViewHeight);
+    }
+
+    /**
+     * 滑动位置变化后调用：投影到屏幕上的变化小于invalidateThreshold像素且居中item不变时不重绘，
+     * 否则重绘，软件绘制时只重绘item所在的区域。
+     */
+    private void invalidateIfMoved() {
+        if (!Float.isNaN(lastDrawnAccumDeg) && geometry.isSized()) {
+            float accumDeg = scroller.getAccumDeg();
+            float deltaDeg = accumDeg - lastDrawnAccumDeg;
+            if (geometry.isCyclic()) { // the same position after a wrap.
+                float periodDeg = geometry.getPeriodDeg();
+                deltaDeg -= Math.round(deltaDeg / periodDeg) * periodDeg;
+            }
+            if (Math.abs(deltaDeg) * geometry.getMaxPixelsPerDeg() < invalidateThreshold
+                    && geometry.nearestIndex(accumDeg) == lastDrawnIndex) {
+                return;
+            }
+        }
+        invalidateWheel();
+    }
+
+    /**
+     * 局部重绘只对软件绘制有效：API 21起硬件加速会忽略脏区域，整个View的DisplayList都会重新录制，
+     * 包括遮罩。这时只有上面跳过的帧能省下绘制。
+     */
+    private void invalidateWheel() {
+        if (wheelBounds.isEmpty() || isHardwareAccelerated()) {
+            invalidate();
+        } else {
+            invalidate(wheelBounds.left, wheelBounds.top, wheelBounds.right, wheelBounds.bottom);
         }
     }
 
-    private void setCameraMatrixAtIndex(float deg, float textTranslateX) {
-        cameraMatrix.reset();
+    /**
+     * 设置滑动时重绘的阈值，居中item在屏幕上移动不足这个距离时不重绘。
+     * @param pixels 默认0.25像素，0表示每次变化都重绘
+     */
+    public void setInvalidateThreshold(float pixels) {
+        this.invalidateThreshold = Math.max(0f, pixels);
+    }
 
-        camera.save(); // save the original state(no any transformation) so you
-                       // can restore it after any changes
-        camera.rotateX(deg); // it will lead to rotate Y and Z axis
-        // y,z axis 3D effects.
-//        camera.rotateY(-10f); // it will lead to rotate Z axis
-//        camera.rotateZ(10f); // it will NOT lead to rotate X,Y axis
-        camera.translate(0f, 0f, -wheelRadius);
-        camera.getMatrix(cameraMatrix);
-        camera.restore(); // restore to the original state after uses for next use
+    private void drawWheelText(Canvas canvas, float textTranslateX, float textOriginX) {
+        float accumDeg = scroller.getAccumDeg();
+        float wheelRadius = geometry.getWheelRadius();
+        float cameraDistance = geometry.getCameraDistance();
+        int slotCount = geometry.getSlotCount();
+
+        slotMatrixTable.ensure(wheelRadius, cameraDistance, textTranslateX, itemMaxHeight,
+                geometry.maxSlotDeg());
+        // centered item is scaled up by cameraDistance/(cameraDistance-wheelRadius).
+        // rows too big for an atlas the GPU can upload are drawn as text.
+        drawFromAtlas = renderMode == RENDER_MODE_BITMAP_CACHE
+                && itemAtlas.ensure(canvas, paintText, itemMaxWidth, itemMaxHeight, textOriginX,
+                        cameraDistance / (cameraDistance - wheelRadius), 2 * (slotCount + 1),
+                        slotCount + 1);
+        firstVisibleIndex = geometry.firstSlotItemIndex(accumDeg);
+        lastVisibleIndex = firstVisibleIndex + slotCount - 1;
+        if (adapter instanceof PagedWheelAdapter) {
+            // finger up(yVelocity < 0) leads to bigger index.
+            int aheadItems = (int) (-scroller.getYVelocity() * PREFETCH_SECONDS
+                    * geometry.getDistanceToDeg() / geometry.getInterItemDeg());
+            prefetch((PagedWheelAdapter) adapter, aheadItems);
+        }
 
-        // translate coordinate origin that camera's transformation depends on
-        // to left/center/right of the maxItem
-        cameraMatrix.preTranslate(-textTranslateX, -(itemMaxHeight / 2));
-        cameraMatrix.postTranslate(textTranslateX, itemMaxHeight / 2);
+        for (int i = 1; i <= slotCount; i++) {
+            float slotDeg = geometry.slotDeg(accumDeg, i);
+            if (!slotMatrixTable.isVisible(slotDeg)) { // 投影后不足1像素，不绘制。
+                continue;
+            }
+            slotMatrixTable.getMatrix(slotDeg, lowDetailRatio, cameraMatrix);
+            drawTextAtIndex(canvas, firstVisibleIndex - 1 + i, textOriginX);
+        }
+    }
+
+    private void prefetch(PagedWheelAdapter pagedAdapter, int aheadItems) {
+        int count = pagedAdapter.getCount();
+        if (!geometry.isCyclic()) {
+            pagedAdapter.prefetch(Math.max(0, firstVisibleIndex),
+                    Math.min(lastVisibleIndex, count - 1), aheadItems);
+            return;
+        }
+        if (lastVisibleIndex - firstVisibleIndex + 1 >= count) {
+            pagedAdapter.prefetch(0, count - 1, 0, true);
+            return;
+        }
+        // one window, it may go across the end of the data.
+        pagedAdapter.prefetch(geometry.wrapIndex(firstVisibleIndex),
+                geometry.wrapIndex(lastVisibleIndex), aheadItems, true);
     }
 
     private void drawTextAtIndex(Canvas canvas, int index, float textOriginX) {
-        if (index >= itemArr.length) {
-            index = itemArr.length - 1;
-        } else if (index < 0) {
-            index = 0;
+        index = geometry.wrapIndex(index); // 循环模式下取模
+        if (index < 0 || index >= adapter.getCount()) { // 两头的空位置不绘制
+            return;
         }
         canvas.save();
         canvas.concat(cameraMatrix);
-        canvas.drawText(itemArr[index], textOriginX, itemMaxHeight, paintText);
+        if (drawFromAtlas) {
+            itemAtlas.draw(canvas, adapter, index, paintText);
+        } else if (adapter instanceof CharWheelAdapter) {
+            int length = ((CharWheelAdapter) adapter).getItemChars(index, charBuffer);
+            canvas.drawText(charBuffer, 0, length, textOriginX, itemMaxHeight, paintText);
+        } else {
+            canvas.drawText(adapter.getItem(index), textOriginX, itemMaxHeight, paintText);
+        }
         canvas.restore();
     }
 
-    private void drawLayer(Canvas canvas) {
+    private void drawLayer(Canvas canvas, float canvasTranslateY) {
         float verticalOffset = itemMaxHeight;
-        float newTop = -(PROJECTION_SCALED -1) * itemMaxHeight/2 - verticalOffset;
-        float newBottom = (PROJECTION_SCALED +1) * itemMaxHeight/2 + verticalOffset;
+        float centerScale = geometry.getCenterScale();
+        float newTop = -(centerScale -1) * itemMaxHeight/2 - verticalOffset;
+        float newBottom = (centerScale +1) * itemMaxHeight/2 + verticalOffset;
+
+        // 遮罩只在尺寸或参数变化时生成，每帧只绘制一次位图。
+        edgeFadeOverlay.ensure(wheelViewWidth, wheelViewHeight, canvasTranslateY + newTop,
+                canvasTranslateY + newBottom, fadeColor, fadeExtent);
+        edgeFadeOverlay.draw(canvas);
+    }
 
-        // 尺寸没有严格按照位置设置，但保证了不影响观感。减少精确尺寸计算，可以提高onDraw效率。
-        // top layer
-        canvas.drawRect(-wheelViewWidth, newTop - (wheelViewHeight>>1),
-                wheelViewWidth, newTop, paintTopLayer);
-        // bottom layer
-        canvas.drawRect(-wheelViewWidth, newBottom, wheelViewWidth,
-                newBottom + (wheelViewHeight>>1), paintBottomLayer);
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        updateRefreshRate();
     }
 
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
-        if (animHandler != null) {
-            animHandler.removeCallbacksAndMessages(null);
-        }
+        stopAnim();
+        frameClock.removeFrameListener(progressFrameListener);
+        itemMeasurer.cancel();
+        itemAtlas.release();
+        edgeFadeOverlay.release();
     }
 
     public interface StateValueListener {
@@ -574,6 +1179,162 @@ public class WheelView extends View {
 
     private StateValueListener stateValueListener;
 
+    public interface ScrollProgressListener {
+        /**
+         * 居中的item变化时调用，滑动过程中每经过一个item调用一次。每帧最多调用一次。
+         * @param currIndex 离中间最近的item的索引
+         */
+        void onIndexChanged(int currIndex);
+
+        /**
+         * 滑动位置变化时调用，每帧最多调用一次。
+         * @param currIndex 离中间最近的item的索引
+         * @param offset    偏离currIndex的item个数，通常为 -0.5 ~ 0.5，滑动到头溢出时会超出这个范围
+         */
+        void onScrollOffset(int currIndex, float offset);
+    }
+
+    private ScrollProgressListener scrollProgressListener;
+
+    /**
+     * 设置滑动过程的监听器，手指拖动和动画过程中的变化合并到下一帧一起回调，回调过程不分配内存。
+     */
+    public void setScrollProgressListener(ScrollProgressListener scrollProgressListener) {
+        this.scrollProgressListener = scrollProgressListener;
+        lastProgressIndex = -1;
+        lastProgressOffset = Float.NaN;
+        if (scrollProgressListener == null) {
+            frameClock.removeFrameListener(progressFrameListener);
+        } else {
+            scheduleScrollProgress();
+        }
+    }
+
+    private void scheduleScrollProgress() {
+        if (scrollProgressListener != null) {
+            frameClock.addFrameListener(progressFrameListener);
+        }
+    }
+
+    private void dispatchScrollProgress() {
+        if (scrollProgressListener == null || !geometry.isSized()) {
+            return;
+        }
+        float accumDeg = scroller.getAccumDeg();
+        int currIndex = geometry.nearestIndex(accumDeg);
+        float offset = geometry.nearestOffset(accumDeg);
+        if (currIndex != lastProgressIndex) {
+            lastProgressIndex = currIndex;
+            scrollProgressListener.onIndexChanged(currIndex);
+        }
+        if (offset != lastProgressOffset) {
+            lastProgressOffset = offset;
+            scrollProgressListener.onScrollOffset(currIndex, offset);
+        }
+    }
+
+    public interface FlingTargetListener {
+        /**
+         * FLING_PHYSICS_ANALYTIC模式下手指离开屏幕时立即调用，此时动画还没有开始。
+         * 可以提前加载停止位置附近的数据。MutableWheelAdapter的修改改变了目标item的索引时会再次调用。
+         * @param finalIndex 滑动停止时居中item的索引
+         */
+        void onFlingTarget(int finalIndex);
+    }
+
+    private FlingTargetListener flingTargetListener;
+
+    public void setFlingTargetListener(FlingTargetListener flingTargetListener) {
+        this.flingTargetListener = flingTargetListener;
+    }
+
+    public interface MetricsListener {
+        /**
+         * 一段动画结束或被打断时在主线程调用，一次惯性滑动和之后的对齐分别回调。
+         * @param kind          WheelMetrics.ANIM_FLING, WheelMetrics.ANIM_CLAMP,
+         *                      WheelMetrics.ANIM_SCROLL_TO
+         * @param steps         动画时钟回调的次数
+         * @param frames        实际绘制的帧数
+         * @param droppedFrames 丢失的vsync帧数
+         * @param durationNanos 动画持续的时间
+         */
+        void onAnimationMetrics(int kind, int steps, int frames, int droppedFrames,
+                                long durationNanos);
+    }
+
+    /**
+     * 开启或关闭性能统计：绘制耗时直方图、动画帧数和掉帧数，API 18及以上同时输出systrace section。
+     * 默认关闭，关闭时不做任何记录；关闭会丢弃已有的统计数据。
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        if (enabled == (instrumentation != null)) {
+            return;
+        }
+        if (enabled) {
+            instrumentation = new WheelInstrumentation();
+            instrumentation.setListener(metricsListener);
+            updateRefreshRate();
+        } else {
+            instrumentation = null;
+        }
+    }
+
+    public boolean isMetricsEnabled() {
+        return instrumentation != null;
+    }
+
+    /**
+     * 复制当前的统计数据，不分配内存。
+     * @param outMetrics 统计数据的快照
+     * @return 未开启统计时返回false，outMetrics不变
+     */
+    public boolean getMetrics(WheelMetrics outMetrics) {
+        if (instrumentation == null) {
+            return false;
+        }
+        outMetrics.set(instrumentation.getMetrics());
+        return true;
+    }
+
+    /**
+     * 清空已有的统计数据，如每次上报之后。
+     */
+    public void resetMetrics() {
+        if (instrumentation != null) {
+            instrumentation.getMetrics().reset();
+        }
+    }
+
+    private MetricsListener metricsListener;
+
+    /**
+     * 设置动画统计的监听器，setMetricsEnabled(true)之后才会回调。
+     */
+    public void setMetricsListener(MetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+        if (instrumentation != null) {
+            instrumentation.setListener(metricsListener);
+        }
+    }
+
+    // the frame clock's interval is used by the touch prediction, the instrumentation counts dropped frames.
+    private void updateRefreshRate() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return;
+        }
+        Display display = getDisplay();
+        if (display == null) {
+            return;
+        }
+        float refreshRate = display.getRefreshRate();
+        if (refreshRate > 0f) {
+            frameClock.setFrameIntervalNanos((long) (1000000000L / refreshRate));
+        }
+        if (instrumentation != null) {
+            instrumentation.setRefreshRate(refreshRate);
+        }
+    }
+
     /**
      * 设置wheelview的状态监听器，获取当前居中item的索引和值
      * @param stateValueListener listener
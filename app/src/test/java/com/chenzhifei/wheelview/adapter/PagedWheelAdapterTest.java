@@ -0,0 +1,143 @@
+package com.chenzhifei.wheelview.adapter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class PagedWheelAdapterTest {
+
+    private static final int COUNT = 1000;
+    private static final int PAGE_SIZE = 50; // 20 pages
+
+    private final ArrayList<Runnable> queuedLoads = new ArrayList<>();
+    private final Executor queueExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            queuedLoads.add(command);
+        }
+    };
+    private final ArrayList<Integer> loadedStarts = new ArrayList<>();
+    private final PagedWheelAdapter.PageSource source = new PagedWheelAdapter.PageSource() {
+        @Override
+        public int getCount() {
+            return COUNT;
+        }
+
+        @Override
+        public String[] loadPage(int start, int count) {
+            loadedStarts.add(start);
+            String[] items = new String[count];
+            for (int i = 0; i < count; i++) {
+                items[i] = String.valueOf(start + i);
+            }
+            return items;
+        }
+    };
+
+    private PagedWheelAdapter adapter;
+
+    @Before
+    public void setUp() {
+        adapter = new PagedWheelAdapter(source, PAGE_SIZE, 8, queueExecutor);
+    }
+
+    @Test
+    public void prefetchLoadsTheVisiblePagesAndOneMoreOnEachSide() {
+        adapter.prefetch(120, 130, 0);
+        runLoads();
+
+        assertLoaded(1, 2, 3);
+        assertFalse(adapter.isItemLoaded(0));
+        assertFalse(adapter.isItemLoaded(200));
+        assertEquals("122", adapter.getItem(122));
+    }
+
+    @Test
+    public void cyclicWindowAcrossTheEndLoadsBothSides() {
+        adapter.prefetch(990, 5, 0, true);
+        runLoads();
+
+        assertLoaded(18, 19, 0, 1);
+        assertEquals("995", adapter.getItem(995));
+        assertEquals("3", adapter.getItem(3));
+        assertFalse(adapter.isItemLoaded(17 * PAGE_SIZE));
+        assertFalse(adapter.isItemLoaded(2 * PAGE_SIZE));
+    }
+
+    @Test
+    public void cyclicPrefetchAheadGoesAcrossTheEnd() {
+        adapter.prefetch(960, 970, 80, true); // towards bigger indexes, past the last item.
+        runLoads();
+
+        assertLoaded(18, 19, 0, 1);
+        assertEquals(19 * PAGE_SIZE, (int) loadedStarts.get(0)); // the visible page first.
+    }
+
+    @Test
+    public void cyclicWindowIsNotEvicted() {
+        adapter = new PagedWheelAdapter(source, PAGE_SIZE, 5, queueExecutor);
+        adapter.prefetch(500, 505, 0, true); // pages 9, 10, 11
+        runLoads();
+        assertLoaded(9, 10, 11);
+
+        adapter.prefetch(990, 5, 0, true); // pages 18, 19, 0, 1
+        runLoads();
+
+        assertLoaded(18, 19, 0, 1);
+        int kept = 0;
+        for (int page = 9; page <= 11; page++) {
+            kept += adapter.isItemLoaded(page * PAGE_SIZE) ? 1 : 0;
+        }
+        assertEquals(1, kept); // 2 of the old pages are evicted for the new window.
+    }
+
+    @Test
+    public void queuedPagesOutOfTheNewWindowAreSkipped() {
+        adapter.prefetch(990, 5, 0, true);
+        adapter.prefetch(500, 505, 0, true); // moved away before the loads ran.
+        runLoads();
+
+        assertLoaded(9, 10, 11);
+        assertFalse(adapter.isItemLoaded(995));
+        assertFalse(adapter.isItemLoaded(5));
+
+        // skipped pages can be requested again.
+        adapter.prefetch(990, 5, 0, true);
+        runLoads();
+        assertLoaded(18, 19, 0, 1);
+    }
+
+    @Test
+    public void cyclicWindowCoveringAllPagesIsCapped() {
+        adapter.prefetch(0, 10, 2 * COUNT, true);
+        runLoads();
+
+        assertEquals(8, loadedStarts.size());
+        assertLoaded(19, 0, 1, 2, 3, 4, 5, 6);
+    }
+
+    private void runLoads() {
+        while (!queuedLoads.isEmpty()) {
+            queuedLoads.remove(0).run();
+        }
+        Robolectric.flushForegroundThreadScheduler();
+    }
+
+    private void assertLoaded(int... pages) {
+        for (int page : pages) {
+            assertTrue("page " + page, adapter.isItemLoaded(page * PAGE_SIZE));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.chenzhifei.wheelview.anim;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FrameClockTest {
+
+    private static final long FRAME = 16666667L;
+
+    private FrameClock clock;
+
+    @Before
+    public void setUp() {
+        clock = FrameClock.createManual();
+    }
+
+    @Test
+    public void listenerReturningFalseIsRemoved() {
+        CountingListener listener = new CountingListener(1);
+        clock.addFrameListener(listener);
+
+        clock.advance(FRAME);
+        clock.advance(2 * FRAME);
+
+        assertEquals(1, listener.frames);
+        assertFalse(clock.hasFrameListener(listener));
+        assertFalse(clock.isFrameScheduled());
+    }
+
+    @Test
+    public void listenerReaddedInOnFrameGetsTheNextFrame() {
+        final int[] frames = new int[1];
+        FrameClock.FrameListener listener = new FrameClock.FrameListener() {
+            @Override
+            public boolean onFrame(long frameTimeNanos) {
+                frames[0]++;
+                if (frames[0] == 1) {
+                    clock.addFrameListener(this); // e.g. a new animation started from the callback
+                }
+                return false;
+            }
+        };
+        clock.addFrameListener(listener);
+
+        clock.advance(FRAME);
+        assertTrue(clock.hasFrameListener(listener));
+        assertTrue(clock.isFrameScheduled());
+
+        clock.advance(2 * FRAME);
+        assertEquals(2, frames[0]);
+        assertFalse(clock.hasFrameListener(listener));
+        assertFalse(clock.isFrameScheduled());
+    }
+
+    @Test
+    public void listenerRemovedAndReaddedInOnFrameGetsTheNextFrame() {
+        final int[] frames = new int[1];
+        FrameClock.FrameListener listener = new FrameClock.FrameListener() {
+            @Override
+            public boolean onFrame(long frameTimeNanos) {
+                frames[0]++;
+                clock.removeFrameListener(this);
+                if (frames[0] == 1) {
+                    clock.addFrameListener(this);
+                }
+                return true;
+            }
+        };
+        clock.addFrameListener(listener);
+
+        clock.advance(FRAME);
+        clock.advance(2 * FRAME);
+        clock.advance(3 * FRAME);
+
+        assertEquals(2, frames[0]);
+        assertFalse(clock.hasFrameListener(listener));
+    }
+
+    @Test
+    public void listenerRemovedByAnEarlierListenerIsSkipped() {
+        final CountingListener second = new CountingListener(Integer.MAX_VALUE);
+        FrameClock.FrameListener first = new FrameClock.FrameListener() {
+            @Override
+            public boolean onFrame(long frameTimeNanos) {
+                clock.removeFrameListener(second);
+                return false;
+            }
+        };
+        clock.addFrameListener(first);
+        clock.addFrameListener(second);
+
+        clock.advance(FRAME);
+
+        assertEquals(0, second.frames);
+        assertFalse(clock.isFrameScheduled());
+    }
+
+    private static class CountingListener implements FrameClock.FrameListener {
+        private final int maxFrames;
+        int frames;
+
+        CountingListener(int maxFrames) {
+            this.maxFrames = maxFrames;
+        }
+
+        @Override
+        public boolean onFrame(long frameTimeNanos) {
+            frames++;
+            return frames < maxFrames;
+        }
+    }
+}
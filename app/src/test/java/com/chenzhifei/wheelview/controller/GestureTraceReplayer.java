@@ -0,0 +1,202 @@
+package com.chenzhifei.wheelview.controller;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.view.MotionEvent;
+
+import com.chenzhifei.wheelview.anim.FrameClock;
+import com.chenzhifei.wheelview.view.WheelView;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 用虚拟时钟回放GestureTraceRecorder记录的trace：事件按记录的时间输入WheelViewController，
+ * 事件之间和手指抬起之后按固定的vsync间隔驱动动画并绘制WheelView，结果与实际设备的帧率无关。
+ * 可以在Robolectric等JVM环境或设备上运行，把线上的问题变成可重复的回归用例，或对比物理参数的修改。
+ *
+ * WheelView需要先完成布局(有宽高)。回放会替换WheelView的动画时钟。
+ */
+
+public class GestureTraceReplayer {
+
+    public static final long DEFAULT_FRAME_INTERVAL_NANOS = 1000000000L / 60;
+    private static final long MAX_SETTLE_NANOS = 30 * 1000000000L; // stop if it never settles.
+    private static final int SOURCE_TOUCHSCREEN = 0x00001002; // InputDevice.SOURCE_TOUCHSCREEN
+
+    public static class Result {
+        /**
+         * 动画停止后居中item的索引
+         */
+        public int finalIndex;
+        /**
+         * 回放的触摸事件个数
+         */
+        public int events;
+        /**
+         * 动画时钟回调的帧数
+         */
+        public int animationSteps;
+        /**
+         * 绘制的帧数
+         */
+        public int frames;
+        /**
+         * 每一帧的实际耗时(动画时钟回调 + 绘制)，纳秒，有效长度为frames
+         */
+        public long[] frameNanos = new long[0];
+        /**
+         * 从第一个事件到动画停止的虚拟时间，纳秒
+         */
+        public long virtualDurationNanos;
+    }
+
+    private final WheelView wheelView;
+    private final WheelViewController controller;
+    private final FrameClock frameClock = FrameClock.createManual();
+    private long frameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+
+    private Canvas canvas;
+    private Result result;
+    private boolean drawPending;
+
+    public GestureTraceReplayer(WheelView wheelView) {
+        this.wheelView = wheelView;
+        frameClock.setFrameIntervalNanos(frameIntervalNanos);
+        wheelView.setFrameClock(frameClock);
+        controller = new WheelViewController(wheelView);
+    }
+
+    /**
+     * @param frameIntervalNanos 虚拟vsync的间隔，默认60Hz
+     */
+    public void setFrameIntervalNanos(long frameIntervalNanos) {
+        if (frameIntervalNanos <= 0) {
+            throw new IllegalArgumentException("frame interval must be positive");
+        }
+        this.frameIntervalNanos = frameIntervalNanos;
+        frameClock.setFrameIntervalNanos(frameIntervalNanos); // the touch prediction targets the same vsync.
+    }
+
+    /**
+     * 回放整个trace，直到最后一个事件之后动画停止。
+     * @param trace GestureTraceRecorder的输出，不会关闭
+     */
+    public Result replay(InputStream trace) throws IOException {
+        if (wheelView.getWidth() == 0 || wheelView.getHeight() == 0) {
+            throw new IllegalStateException("lay out the WheelView before replaying");
+        }
+        canvas = new Canvas(Bitmap.createBitmap(wheelView.getWidth(), wheelView.getHeight(),
+                Bitmap.Config.ARGB_8888));
+        result = new Result();
+        drawPending = false;
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(trace));
+        if (in.readInt() != GestureTraceRecorder.MAGIC) {
+            throw new IOException("not a gesture trace");
+        }
+        short version = in.readShort();
+        if (version != GestureTraceRecorder.VERSION) {
+            throw new IOException("unsupported gesture trace version " + version);
+        }
+
+        long nextFrameNanos = -1;
+        MotionEvent event;
+        while ((event = readEvent(in)) != null) {
+            long eventNanos = event.getEventTime() * 1000000L;
+            if (nextFrameNanos < 0) {
+                nextFrameNanos = eventNanos + frameIntervalNanos;
+            }
+            while (nextFrameNanos <= eventNanos) {
+                runFrame(nextFrameNanos);
+                nextFrameNanos += frameIntervalNanos;
+            }
+            controller.inputTouchEvent(event);
+            event.recycle();
+            result.events++;
+            drawPending = true;
+        }
+
+        long settleDeadline = nextFrameNanos + MAX_SETTLE_NANOS;
+        while ((frameClock.isFrameScheduled() || drawPending) && nextFrameNanos < settleDeadline) {
+            runFrame(nextFrameNanos);
+            nextFrameNanos += frameIntervalNanos;
+        }
+
+        result.finalIndex = wheelView.getCurrentIndex();
+        result.virtualDurationNanos = Math.max(0, nextFrameNanos - frameIntervalNanos);
+        return result;
+    }
+
+    private void runFrame(long frameTimeNanos) {
+        boolean animating = frameClock.isFrameScheduled();
+        if (!animating && !drawPending) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (animating) {
+            frameClock.advance(frameTimeNanos);
+            result.animationSteps++;
+        }
+        wheelView.draw(canvas);
+        drawPending = false;
+        long frameNanos = System.nanoTime() - start;
+
+        if (result.frames == result.frameNanos.length) {
+            long[] grown = new long[Math.max(64, result.frames * 2)];
+            System.arraycopy(result.frameNanos, 0, grown, 0, result.frames);
+            result.frameNanos = grown;
+        }
+        result.frameNanos[result.frames++] = frameNanos;
+    }
+
+    /**
+     * @return null at the end of the trace.
+     */
+    private static MotionEvent readEvent(DataInputStream in) throws IOException {
+        int actionMasked;
+        try {
+            actionMasked = in.readUnsignedByte();
+        } catch (EOFException e) {
+            return null;
+        }
+        int actionIndex = in.readUnsignedByte();
+        int pointerCount = in.readUnsignedByte();
+        int sampleCount = in.readUnsignedShort();
+        long downTime = in.readInt();
+
+        MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[pointerCount];
+        MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[pointerCount];
+        for (int p = 0; p < pointerCount; p++) {
+            properties[p] = new MotionEvent.PointerProperties();
+            properties[p].id = in.readUnsignedByte();
+            coords[p] = new MotionEvent.PointerCoords();
+        }
+
+        int action = actionMasked;
+        if (actionMasked == MotionEvent.ACTION_POINTER_DOWN || actionMasked == MotionEvent.ACTION_POINTER_UP) {
+            action |= actionIndex << MotionEvent.ACTION_POINTER_INDEX_SHIFT;
+        }
+
+        MotionEvent event = null;
+        for (int s = 0; s < sampleCount; s++) {
+            long eventTime = in.readInt();
+            for (int p = 0; p < pointerCount; p++) {
+                coords[p].x = in.readFloat();
+                coords[p].y = in.readFloat();
+                coords[p].pressure = 1f;
+                coords[p].size = 1f;
+            }
+            if (event == null) {
+                event = MotionEvent.obtain(downTime, eventTime, action, pointerCount, properties,
+                        coords, 0, 0, 1f, 1f, 0, 0, SOURCE_TOUCHSCREEN, 0);
+            } else {
+                event.addBatch(eventTime, coords, 0);
+            }
+        }
+        return event;
+    }
+}
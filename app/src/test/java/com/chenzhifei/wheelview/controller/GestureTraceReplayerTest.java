@@ -0,0 +1,71 @@
+package com.chenzhifei.wheelview.controller;
+
+import com.chenzhifei.wheelview.view.WheelView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 回放src/test/resources/traces下记录的trace，动画帧数或停止位置变化说明滑动行为变了。
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class GestureTraceReplayerTest {
+
+    /**
+     * 400x400的WheelView，50个item，默认7个item、120°：每个item约86.6px。
+     * 手指按下后16ms一次MOVE向上拖动240px，停住约320ms(位置不变的MOVE)后抬起，
+     * 抬起时速度为0，从约2.77个item对齐到第3个item。
+     */
+    private static final String DRAG_REST_RELEASE = "traces/drag_rest_release.trace";
+
+    @Test
+    public void dragRestRelease() throws IOException {
+        GestureTraceReplayer.Result result = replay(DRAG_REST_RELEASE);
+
+        assertEquals(34, result.events);
+        assertEquals(3, result.finalIndex);
+        assertEquals(39, result.animationSteps);
+        assertEquals(39, result.frames);
+        for (int i = 0; i < result.frames; i++) {
+            assertTrue(result.frameNanos[i] >= 0);
+        }
+    }
+
+    @Test
+    public void replayIsRepeatable() throws IOException {
+        GestureTraceReplayer.Result first = replay(DRAG_REST_RELEASE);
+        GestureTraceReplayer.Result second = replay(DRAG_REST_RELEASE);
+
+        assertEquals(first.finalIndex, second.finalIndex);
+        assertEquals(first.animationSteps, second.animationSteps);
+        assertEquals(first.frames, second.frames);
+        assertEquals(first.virtualDurationNanos, second.virtualDurationNanos);
+    }
+
+    private static GestureTraceReplayer.Result replay(String trace) throws IOException {
+        WheelView wheelView = new WheelView(RuntimeEnvironment.application);
+        wheelView.layout(0, 0, 400, 400);
+        String[] data = new String[50];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = "item " + i;
+        }
+        wheelView.setData(data);
+
+        InputStream in = GestureTraceReplayerTest.class.getClassLoader().getResourceAsStream(trace);
+        try {
+            return new GestureTraceReplayer(wheelView).replay(in);
+        } finally {
+            in.close();
+        }
+    }
+}
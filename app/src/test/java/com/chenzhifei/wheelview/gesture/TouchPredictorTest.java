@@ -0,0 +1,71 @@
+package com.chenzhifei.wheelview.gesture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TouchPredictorTest {
+
+    private static final long BASE_MS = 5000000L; // uptime of a device that has been on for a while
+    private static final float EPSILON = 1e-2f;
+
+    private TouchPredictor predictor;
+    private long lastMs;
+
+    @Before
+    public void setUp() {
+        predictor = new TouchPredictor();
+        predictor.setMaxPredictionDistance(1000f);
+        // finger moving down at 1px/ms, sampled every 4ms for 100ms.
+        for (int i = 0; i <= 25; i++) {
+            lastMs = BASE_MS + i * 4;
+            predictor.addSample(lastMs, 0f, i * 4f);
+        }
+    }
+
+    @Test
+    public void predictUsesTheFixedHorizon() {
+        predictor.setPredictionHorizon(16f);
+        predictor.predict();
+        assertEquals(116f, predictor.getPredictedY(), EPSILON);
+        assertEquals(0f, predictor.getPredictedX(), EPSILON);
+    }
+
+    @Test
+    public void predictAtFollowsTheTargetTime() {
+        float lastY = predictor.getLastY();
+
+        predictor.predictAt(nanos(lastMs) + 8333333L); // 120Hz
+        assertEquals(lastY + 8.333f, predictor.getPredictedY(), EPSILON);
+
+        predictor.predictAt(nanos(lastMs) + 11111111L); // 90Hz
+        assertEquals(lastY + 11.111f, predictor.getPredictedY(), EPSILON);
+
+        predictor.predictAt(nanos(lastMs) + 30000000L); // a late frame
+        assertEquals(lastY + 30f, predictor.getPredictedY(), EPSILON);
+    }
+
+    @Test
+    public void predictAtIsLimitedToTheVelocityWindow() {
+        predictor.predictAt(nanos(lastMs) + 500000000L);
+        assertEquals(predictor.getLastY() + 50f, predictor.getPredictedY(), EPSILON);
+    }
+
+    @Test
+    public void targetBeforeTheNewestSampleDoesNotPredict() {
+        predictor.predictAt(nanos(lastMs) - 4000000L);
+        assertEquals(predictor.getLastY(), predictor.getPredictedY(), 0f);
+    }
+
+    @Test
+    public void predictionIsCapped() {
+        predictor.setMaxPredictionDistance(5f);
+        predictor.predictAt(nanos(lastMs) + 16666667L);
+        assertEquals(predictor.getLastY() + 5f, predictor.getPredictedY(), EPSILON);
+    }
+
+    private static long nanos(long millis) {
+        return millis * 1000000L;
+    }
+}
@@ -0,0 +1,71 @@
+package com.chenzhifei.wheelview.view;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class ItemAtlasTest {
+
+    private static final int MAX_ATLAS_SIZE = 2048;
+
+    private final ItemAtlas atlas = new ItemAtlas();
+    private final Canvas canvas = new Canvas();
+    private final Paint paint = new Paint();
+    private int cellHeight;
+
+    @Before
+    public void setUp() {
+        paint.setTextSize(96f);
+        Paint.FontMetrics fm = new Paint.FontMetrics();
+        paint.getFontMetrics(fm);
+        cellHeight = (int) Math.ceil((fm.descent - fm.ascent) * 1.5f) + 4;
+    }
+
+    @Test
+    public void showItems31FitsInAGrid() {
+        // MAX_SHOW_ITEMS 31: 2 * (slotCount + 1) cells, a single column would be far too tall.
+        int capacity = 2 * (31 + 1);
+        assertTrue(atlas.ensure(canvas, paint, 300, 100, 0f, 1.5f, capacity, 32));
+
+        Bitmap bitmap = atlas.getBitmap();
+        assertTrue(bitmap.getWidth() <= MAX_ATLAS_SIZE);
+        assertTrue(bitmap.getHeight() <= MAX_ATLAS_SIZE);
+        assertEquals(Math.min(capacity, (MAX_ATLAS_SIZE / cellHeight) * (MAX_ATLAS_SIZE / 454)),
+                atlas.getCapacity());
+        assertTrue(atlas.getCapacity() >= 32);
+    }
+
+    @Test
+    public void fewCellsStayInOneColumn() {
+        assertTrue(atlas.ensure(canvas, paint, 300, 100, 0f, 1.5f, 4, 2));
+
+        assertEquals(4, atlas.getCapacity());
+        assertEquals(454, atlas.getBitmap().getWidth()); // 300 * 1.5 + 2 * PADDING
+        assertEquals(4 * cellHeight, atlas.getBitmap().getHeight());
+    }
+
+    @Test
+    public void rowsTooWideAreNotCached() {
+        assertFalse(atlas.ensure(canvas, paint, 1500, 100, 0f, 1.5f, 16, 8));
+
+        assertNull(atlas.getBitmap());
+        assertEquals(0, atlas.getCapacity());
+        // the same params again, still not cached.
+        assertFalse(atlas.ensure(canvas, paint, 1500, 100, 0f, 1.5f, 16, 8));
+
+        assertTrue(atlas.ensure(canvas, paint, 300, 100, 0f, 1.5f, 16, 8));
+    }
+}
@@ -0,0 +1,109 @@
+package com.chenzhifei.wheelview.view;
+
+import android.graphics.Paint;
+
+import com.chenzhifei.wheelview.adapter.HashValueIndex;
+import com.chenzhifei.wheelview.adapter.MutableWheelAdapter;
+import com.chenzhifei.wheelview.adapter.WheelAdapter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 26)
+public class WheelViewScrollToValueTest {
+
+    private WheelView wheelView;
+    private CountingAdapter adapter;
+
+    @Before
+    public void setUp() {
+        wheelView = new WheelView(RuntimeEnvironment.application);
+        adapter = new CountingAdapter(10000);
+        wheelView.setAdapter(adapter);
+    }
+
+    @Test
+    public void missFromAFreshIndexDoesNotScan() {
+        wheelView.setValueIndex(new HashValueIndex(adapter));
+        adapter.reads = 0;
+
+        assertFalse(wheelView.scrollToValue("missing"));
+        assertEquals(0, adapter.reads);
+    }
+
+    @Test
+    public void hitFromAFreshIndexIsCheckedOnce() {
+        wheelView.setValueIndex(new HashValueIndex(adapter));
+        adapter.reads = 0;
+
+        assertTrue(wheelView.scrollToValue("9000"));
+        assertEquals(9000, wheelView.getCurrentIndex());
+        assertEquals(1, adapter.reads);
+    }
+
+    @Test
+    public void staleIndexFallsBackToAScan() {
+        wheelView.setValueIndex(new HashValueIndex(adapter));
+        CountingAdapter shifted = new CountingAdapter(10000, 5); // "5" ~ "10004"
+        wheelView.setAdapter(shifted);
+
+        assertTrue(wheelView.scrollToValue("10004")); // not in the old index.
+        assertEquals(9999, wheelView.getCurrentIndex());
+        assertTrue(wheelView.scrollToValue("9000"));
+        assertEquals(8995, wheelView.getCurrentIndex());
+        assertFalse(wheelView.scrollToValue("0"));
+    }
+
+    @Test
+    public void mutationMakesTheIndexStale() {
+        MutableWheelAdapter mutable = new MutableWheelAdapter(new String[]{"a", "b", "c"});
+        wheelView.setAdapter(mutable);
+        wheelView.setValueIndex(new HashValueIndex(mutable));
+
+        mutable.insert(0, "d");
+        assertTrue(wheelView.scrollToValue("d"));
+        assertEquals(0, wheelView.getCurrentIndex());
+        assertTrue(wheelView.scrollToValue("c"));
+        assertEquals(3, wheelView.getCurrentIndex());
+    }
+
+    private static class CountingAdapter implements WheelAdapter {
+        private final int count;
+        private final int first;
+        int reads;
+
+        CountingAdapter(int count) {
+            this(count, 0);
+        }
+
+        CountingAdapter(int count, int first) {
+            this.count = count;
+            this.first = first;
+        }
+
+        @Override
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public String getItem(int index) {
+            reads++;
+            return String.valueOf(first + index);
+        }
+
+        @Override
+        public int getItemWidth(Paint paint) {
+            return 100;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.chenzhifei.wheelview.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次完整的惯性滑动：从手指离开到对齐到某个item，按60fps逐帧推进。
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FlingBenchmark {
+
+    private static final float PROJECTION_Y = 400f;
+    private static final float FLING_VELOCITY = -8000f; // pixels/second, finger up.
+    private static final float VELOCITY_REDUCE = 40f;
+
+    @Param({"1", "7", "11"})
+    public int showItems;
+
+    @Param({"100", "10000", "200000"})
+    public int dataSize;
+
+    private WheelGeometry geometry;
+    private WheelScroller scroller;
+    private WheelScroller analyticScroller;
+
+    @Setup
+    public void setUp() {
+        geometry = new WheelGeometry(showItems);
+        geometry.setItemCount(dataSize);
+        geometry.setProjectionY(PROJECTION_Y);
+        scroller = new WheelScroller(geometry);
+        scroller.setYVelocityReduce(VELOCITY_REDUCE);
+        analyticScroller = new WheelScroller(geometry);
+        analyticScroller.setPhysics(WheelScroller.PHYSICS_ANALYTIC);
+    }
+
+    /**
+     * @return 推进的帧数
+     */
+    @Benchmark
+    public int flingToRest() {
+        scroller.scrollToIndex(dataSize / 2);
+        scroller.fling(FLING_VELOCITY);
+        int frames = 0;
+        while (scroller.step(WheelScroller.REFERENCE_FRAME_SECONDS) != WheelScroller.FRAME_SETTLED) {
+            frames++;
+        }
+        return frames;
+    }
+
+    /**
+     * 滑动到头后的溢出和回弹。
+     */
+    @Benchmark
+    public int flingPastEnd() {
+        scroller.scrollToIndex(dataSize - 1);
+        scroller.fling(FLING_VELOCITY);
+        int frames = 0;
+        while (scroller.step(WheelScroller.REFERENCE_FRAME_SECONDS) != WheelScroller.FRAME_SETTLED) {
+            frames++;
+        }
+        return frames;
+    }
+
+    /**
+     * PHYSICS_ANALYTIC：轨迹在fling时一次算出，每帧只是按时间取值。
+     */
+    @Benchmark
+    public int analyticFlingToRest() {
+        analyticScroller.scrollToIndex(dataSize / 2);
+        analyticScroller.fling(FLING_VELOCITY);
+        int frames = 0;
+        while (analyticScroller.step(WheelScroller.REFERENCE_FRAME_SECONDS)
+                != WheelScroller.FRAME_SETTLED) {
+            frames++;
+        }
+        return frames;
+    }
+}
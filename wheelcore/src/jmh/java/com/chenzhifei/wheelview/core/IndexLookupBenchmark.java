@@ -0,0 +1,68 @@
+package com.chenzhifei.wheelview.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 距离、角度与索引之间的换算：getCurrentIndex、setItem和对齐时使用。
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IndexLookupBenchmark {
+
+    private static final float PROJECTION_Y = 400f;
+    private static final int LOOKUPS = 64;
+
+    @Param({"1", "7", "11"})
+    public int showItems;
+
+    @Param({"100", "10000", "200000"})
+    public int dataSize;
+
+    private WheelGeometry geometry;
+    private final float[] distances = new float[LOOKUPS];
+
+    @Setup
+    public void setUp() {
+        geometry = new WheelGeometry(showItems);
+        geometry.setItemCount(dataSize);
+        geometry.setProjectionY(PROJECTION_Y);
+        float maxDistance = geometry.toDistanceY(geometry.getMaxSlideDeg());
+        for (int i = 0; i < LOOKUPS; i++) {
+            distances[i] = maxDistance * i / LOOKUPS;
+        }
+    }
+
+    @Benchmark
+    public void nearestIndex(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            blackhole.consume(geometry.nearestIndex(geometry.toDeg(distances[i])));
+        }
+    }
+
+    @Benchmark
+    public void snapDeg(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            blackhole.consume(geometry.snapDeg(geometry.toDeg(distances[i])));
+        }
+    }
+
+    @Benchmark
+    public void indexToDistance(Blackhole blackhole) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            int index = (int) ((long) dataSize * i / LOOKUPS);
+            blackhole.consume(geometry.toDistanceY(geometry.degOfIndex(index)));
+        }
+    }
+}
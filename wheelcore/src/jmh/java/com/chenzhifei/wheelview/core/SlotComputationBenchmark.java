@@ -0,0 +1,66 @@
+package com.chenzhifei.wheelview.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一帧内所有位置(slot)的角度和透视矩阵计算，即onDraw中与Canvas无关的部分。
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SlotComputationBenchmark {
+
+    private static final float PROJECTION_Y = 400f; // pixels, a typical wheel of 800px high.
+    private static final int ITEM_MAX_HEIGHT = 48;
+
+    @Param({"1", "7", "11", "21"})
+    public int showItems;
+
+    @Param({"100", "10000", "200000"})
+    public int dataSize;
+
+    private WheelGeometry geometry;
+    private final float[] values = new float[9];
+    private float accumDeg;
+
+    @Setup
+    public void setUp() {
+        geometry = new WheelGeometry(showItems);
+        geometry.setItemCount(dataSize);
+        geometry.setProjectionY(PROJECTION_Y);
+        accumDeg = geometry.getMaxSlideDeg() / 2;
+    }
+
+    @Benchmark
+    public void slotDegs(Blackhole blackhole) {
+        // move a little every frame, like a fling.
+        accumDeg = (accumDeg + 0.7f) % geometry.getMaxSlideDeg();
+        blackhole.consume(geometry.firstSlotItemIndex(accumDeg));
+        for (int i = 1, slotCount = geometry.getSlotCount(); i <= slotCount; i++) {
+            blackhole.consume(geometry.slotDeg(accumDeg, i));
+        }
+    }
+
+    @Benchmark
+    public void slotMatrices(Blackhole blackhole) {
+        accumDeg = (accumDeg + 0.7f) % geometry.getMaxSlideDeg();
+        float wheelRadius = geometry.getWheelRadius();
+        float cameraDistance = geometry.getCameraDistance();
+        for (int i = 1, slotCount = geometry.getSlotCount(); i <= slotCount; i++) {
+            WheelProjection.getMatrixValues(geometry.slotDeg(accumDeg, i), wheelRadius,
+                    cameraDistance, 0f, ITEM_MAX_HEIGHT / 2, values);
+            blackhole.consume(values);
+        }
+    }
+}
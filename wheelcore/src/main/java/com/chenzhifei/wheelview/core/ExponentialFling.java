@@ -0,0 +1,111 @@
+package com.chenzhifei.wheelview.core;
+
+/**
+ * 解析形式的惯性滑动：速度按指数衰减，v(t) = v0 * e^(-t/τ)，
+ * 所以手指离开时就能算出停止的位置 x0 + v0*τ 和整个轨迹。
+ *
+ * 停止位置先对齐到最近的item(并限制在 0 ~ maxSlideDeg)，再反过来调整v0使轨迹刚好停在那里，
+ * 对齐和溢出回弹都包含在同一条曲线里，不再需要单独的clamp阶段。
+ *
+ * 指数曲线不会真正停止，剩余距离小于SETTLE_DEG时结束，轨迹按 1-e^(-T/τ) 归一化，T时刻刚好到达目标。
+ */
+
+public class ExponentialFling {
+
+    private static final float SETTLE_DEG = 0.05f; // remaining deg when the curve is treated as stopped.
+
+    private float startDeg;
+    private float distanceDeg;   // finalDeg - startDeg
+    private float timeConstant;  // τ, seconds
+    private float durationSeconds;
+    private float normalization; // 1 / (1 - e^(-T/τ))
+
+    /**
+     * @return 不对齐、不限制范围时，速度衰减到0的位置
+     */
+    public static float restingDeg(float startDeg, float degVelocity, float timeConstant) {
+        return startDeg + degVelocity * timeConstant;
+    }
+
+    /**
+     * 计算整条轨迹。
+     * @param startDeg     手指离开时的角度(accumDeg)
+     * @param degVelocity  手指离开时的角速度，度/秒，增大accumDeg的方向为正
+     * @param timeConstant τ，秒，越大滑得越远
+     */
+    public void start(WheelGeometry geometry, float startDeg, float degVelocity, float timeConstant) {
+        float restingDeg = restingDeg(startDeg, degVelocity, timeConstant);
+        float finalDeg;
+        if (geometry.isCyclic()) {
+            finalDeg = geometry.snapDeg(restingDeg);
+        } else {
+            float maxSlideDeg = geometry.getMaxSlideDeg();
+            restingDeg = Math.max(0f, Math.min(restingDeg, maxSlideDeg));
+            finalDeg = Math.min(geometry.snapDeg(restingDeg), maxSlideDeg);
+        }
+        startTo(startDeg, finalDeg, timeConstant);
+    }
+
+    /**
+     * 计算从startDeg刚好停在finalDeg的轨迹，初始速度由距离决定：v0 = (finalDeg - startDeg) / τ(归一化前)。
+     */
+    public void startTo(float startDeg, float finalDeg, float timeConstant) {
+        this.startDeg = startDeg;
+        this.distanceDeg = finalDeg - startDeg;
+        this.timeConstant = timeConstant;
+        float absDistance = Math.abs(distanceDeg);
+        if (absDistance <= SETTLE_DEG) {
+            durationSeconds = 0f;
+            normalization = 1f;
+        } else {
+            // e^(-T/τ) * |D| = SETTLE_DEG
+            durationSeconds = timeConstant * (float) Math.log(absDistance / SETTLE_DEG);
+            normalization = 1f / (1f - SETTLE_DEG / absDistance);
+        }
+    }
+
+    /**
+     * 平移整条轨迹，循环模式下重新归一化角度时使用。
+     */
+    public void offset(float deltaDeg) {
+        startDeg += deltaDeg;
+    }
+
+    public float getFinalDeg() {
+        return startDeg + distanceDeg;
+    }
+
+    public float getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /**
+     * @return 调整后的初始角速度，度/秒
+     */
+    public float getStartDegVelocity() {
+        return degVelocityAt(0f);
+    }
+
+    public boolean isFinished(float elapsedSeconds) {
+        return elapsedSeconds >= durationSeconds;
+    }
+
+    /**
+     * @param elapsedSeconds 从start开始经过的时间
+     */
+    public float degAt(float elapsedSeconds) {
+        if (elapsedSeconds >= durationSeconds) {
+            return startDeg + distanceDeg;
+        }
+        float decay = (float) Math.exp(-elapsedSeconds / timeConstant);
+        return startDeg + distanceDeg * (1f - decay) * normalization;
+    }
+
+    public float degVelocityAt(float elapsedSeconds) {
+        if (elapsedSeconds >= durationSeconds) {
+            return 0f;
+        }
+        float decay = (float) Math.exp(-elapsedSeconds / timeConstant);
+        return distanceDeg / timeConstant * decay * normalization;
+    }
+}
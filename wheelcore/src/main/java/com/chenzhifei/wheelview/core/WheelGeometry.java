@@ -0,0 +1,308 @@
+package com.chenzhifei.wheelview.core;
+
+/**
+ * WheelView的几何计算：item之间的角度、手指滑动距离与角度的换算、可滑动的最大角度、
+ * 每个位置(slot)的角度和索引。不依赖Android，可以在JVM上测试和进行基准测试。
+ */
+
+public class WheelGeometry {
+
+    public static final float DEG_TO_RADIAN = (float) (Math.PI / 180.0f);
+
+    public static final int WHEEL_VIEW_DEG = 120; // default wheelview show angle
+    // distanceZ will lead to scale up or down the view.
+    public static final float PROJECTION_SCALED = projectionScaled(WHEEL_VIEW_DEG);
+    public static final float MIN_WHEEL_VIEW_DEG = 30f;
+    public static final float MAX_WHEEL_VIEW_DEG = 160f; // camera gets too close to the wheel near 180.
+    public static final int MAX_SHOW_ITEMS = 31;
+
+    private float wheelViewDeg = WHEEL_VIEW_DEG;
+    private float projectionScaled = PROJECTION_SCALED;
+    private int showItems;
+    private float interItemDeg; // deg between two adjacent items。
+    private int slotCount;      // wheelViewDeg / interItemDeg
+    private int slotOffset;     // 两头各有slotOffset个空位置
+    private int itemCount = 1;
+    private float maxSlideDeg;
+    private boolean cyclic = false; // items loop: ... n-1, 0, 1, ... n-1, 0 ...
+
+    private float projectionY = -1f;
+    private float wheelRadius; // wheelView item's distanceZ.
+    private float distanceToDeg = -1f; // will be set in setProjectionY().
+    private float cameraDistance;
+
+    public WheelGeometry(int showItems) {
+        this(showItems, WHEEL_VIEW_DEG);
+    }
+
+    /**
+     * @param wheelViewDeg 显示的弧度，见setWheelViewDeg
+     */
+    public WheelGeometry(int showItems, float wheelViewDeg) {
+        setWheelViewDeg(wheelViewDeg);
+        setShowItems(showItems);
+    }
+
+    private static float projectionScaled(float wheelViewDeg) {
+        return 1/(1-(float)Math.cos(wheelViewDeg/2*DEG_TO_RADIAN));
+    }
+
+    /**
+     * @param showItems 同时显示的item个数，1 ~ MAX_SHOW_ITEMS之间的奇数
+     */
+    public void setShowItems(int showItems) {
+        if (showItems < 1 || showItems > MAX_SHOW_ITEMS || showItems%2 == 0) {
+            throw new IllegalArgumentException("showItems must be an odd number in 1 ~ "
+                    + MAX_SHOW_ITEMS);
+        }
+        this.showItems = showItems;
+        interItemDeg = wheelViewDeg / (showItems+1);
+        slotCount = showItems + 1;
+        slotOffset = slotCount / 2;
+        updateMaxSlideDeg();
+    }
+
+    public int getShowItems() {
+        return showItems;
+    }
+
+    /**
+     * 设置显示的弧度：两头的item在 ±wheelViewDeg/2 处刚好斜切出wheel的高度。
+     * 弧度越大，两头的item越扁。已经setProjectionY时重新计算半径。
+     * @param wheelViewDeg MIN_WHEEL_VIEW_DEG ~ MAX_WHEEL_VIEW_DEG，默认WHEEL_VIEW_DEG
+     */
+    public void setWheelViewDeg(float wheelViewDeg) {
+        if (!(wheelViewDeg >= MIN_WHEEL_VIEW_DEG && wheelViewDeg <= MAX_WHEEL_VIEW_DEG)) {
+            throw new IllegalArgumentException("wheelViewDeg must be in " + MIN_WHEEL_VIEW_DEG
+                    + " ~ " + MAX_WHEEL_VIEW_DEG);
+        }
+        this.wheelViewDeg = wheelViewDeg;
+        this.projectionScaled = projectionScaled(wheelViewDeg);
+        if (showItems > 0) {
+            setShowItems(showItems);
+        }
+        if (isSized()) {
+            setProjectionY(projectionY);
+        }
+    }
+
+    public float getWheelViewDeg() {
+        return wheelViewDeg;
+    }
+
+    /**
+     * @return cameraDistance / wheelRadius，与WHEEL_VIEW_DEG对应的是PROJECTION_SCALED
+     */
+    public float getProjectionScaled() {
+        return projectionScaled;
+    }
+
+    /**
+     * @return 居中item投影后放大的倍数 cameraDistance / (cameraDistance - wheelRadius)
+     */
+    public float getCenterScale() {
+        return projectionScaled / (projectionScaled - 1);
+    }
+
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+        updateMaxSlideDeg();
+    }
+
+    private void updateMaxSlideDeg() {
+        /**
+         * count+slotCount-1: item --- item --- item, 3 - 1 = 2
+         *  0                                            max deg
+         * |-------<--wheelViewDeg-->----------------------|
+         */
+        maxSlideDeg = interItemDeg*(itemCount+slotCount-1) - wheelViewDeg;
+    }
+
+    /**
+     * 循环模式下索引按itemCount取模，两头没有空位置，可以无限滑动，不会溢出。
+     */
+    public void setCyclic(boolean cyclic) {
+        this.cyclic = cyclic;
+    }
+
+    public boolean isCyclic() {
+        return cyclic;
+    }
+
+    /**
+     * @return 循环模式下转动一圈所有item的角度
+     */
+    public float getPeriodDeg() {
+        return itemCount * interItemDeg;
+    }
+
+    /**
+     * @return 循环模式下按itemCount取模，否则不变
+     */
+    public int wrapIndex(int index) {
+        if (!cyclic) {
+            return index;
+        }
+        int wrapped = index % itemCount;
+        return wrapped < 0 ? wrapped + itemCount : wrapped;
+    }
+
+    /**
+     * @param projectionY wheel投影到屏幕上高度的一半，单位为像素
+     */
+    public void setProjectionY(float projectionY) {
+        this.projectionY = projectionY;
+        // the item at half the arc(θ) is projected to projectionY:
+        // L*R*sinθ / (L - R*cosθ) = projectionY, L = projectionScaled*R = R / (1-cosθ)
+        double halfRadian = wheelViewDeg / 2 * DEG_TO_RADIAN;
+        float cos = (float) Math.cos(halfRadian);
+        wheelRadius = projectionY * (1 - cos + cos*cos) / (float) Math.sin(halfRadian);
+        distanceToDeg = 30f / wheelRadius; // wheelRadius --> 30°
+        cameraDistance = projectionScaled*wheelRadius;
+    }
+
+    /**
+     * @return setProjectionY之前，距离与角度之间无法换算
+     */
+    public boolean isSized() {
+        return distanceToDeg != -1f;
+    }
+
+    public float getInterItemDeg() {
+        return interItemDeg;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public int getSlotOffset() {
+        return slotOffset;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public float getMaxSlideDeg() {
+        return maxSlideDeg;
+    }
+
+    public float getWheelRadius() {
+        return wheelRadius;
+    }
+
+    public float getDistanceToDeg() {
+        return distanceToDeg;
+    }
+
+    /**
+     * @return camera到屏幕的距离，单位为像素
+     */
+    public float getCameraDistance() {
+        return cameraDistance;
+    }
+
+    /**
+     * 转动1°时屏幕上移动最多的像素数，即居中item的移动距离：
+     * Y = -L*R*sinθ / (L - R*cosθ)，在θ = 0处的导数为 L*R / (L-R)。
+     */
+    public float getMaxPixelsPerDeg() {
+        return DEG_TO_RADIAN * cameraDistance * wheelRadius / (cameraDistance - wheelRadius);
+    }
+
+    /**
+     * camera's y axis direction is opposite to screen's.
+     * @return distanceY对应的转动角度
+     */
+    public float toDeg(float distanceY) {
+        return -distanceY * distanceToDeg;
+    }
+
+    public float toDistanceY(float deg) {
+        return -deg / distanceToDeg;
+    }
+
+    public float degOfIndex(int index) {
+        return index * interItemDeg;
+    }
+
+    /**
+     * @return accumDeg位置已经转过的item的索引（向下取整），不做范围检查
+     */
+    public int indexAt(float accumDeg) {
+        // same remainder as slotDeg, so the index and the slot angles always agree.
+        return Math.round((accumDeg - accumDeg % interItemDeg) / interItemDeg);
+    }
+
+    /**
+     * @return 离accumDeg最近的item的索引，限制在0 ~ itemCount-1，循环模式下取模
+     */
+    public int nearestIndex(float accumDeg) {
+        int index = Math.round(accumDeg / interItemDeg);
+        if (cyclic) {
+            return wrapIndex(index);
+        }
+        return Math.max(0, Math.min(index, itemCount - 1));
+    }
+
+    /**
+     * @return accumDeg偏离nearestIndex的item个数
+     */
+    public float nearestOffset(float accumDeg) {
+        float position = accumDeg / interItemDeg;
+        if (cyclic) {
+            return position - Math.round(position);
+        }
+        return position - nearestIndex(accumDeg);
+    }
+
+    /**
+     * @return 离accumDeg最近的item所在的角度，刚好在中间时取较大的一个
+     */
+    public float snapDeg(float accumDeg) {
+        return (float) Math.floor(accumDeg / interItemDeg + 0.5f) * interItemDeg;
+    }
+
+    public boolean isOverscrolled(float accumDeg) {
+        return !cyclic && (accumDeg > maxSlideDeg || accumDeg < 0f);
+    }
+
+    /**
+     * @return 第一个位置(slot 1)上item的索引，可能小于0或大于itemCount-1（两头的空位置）
+     */
+    public int firstSlotItemIndex(float accumDeg) {
+        return indexAt(accumDeg) + 1 - slotOffset;
+    }
+
+    /**
+     * 每转动interItemDeg循环一次。
+     * 9个位置，两头的两个位置刚好斜切，不显示。
+     *   不显示   60   45   30   15    0   -15  -30  -45  -60  不显示
+     *  ----------\----\----\----\----\----\----\----\----\----------
+     *   初始化    !    \    \    \    \    \    \    \    !    7个  0 !：刚好斜切，不显示。
+     *   驱动范围：
+     *           <--  \    \    \    \    \    \    \    \     8个  1
+     *          <--  \    \    \    \    \    \    \    \      8个  2
+     *         <--  \    \    \    \    \    \    \    \       8个  3
+     *        <--  \    \    \    \    \    \    \    \        8个  4
+     *   重复：
+     *       <--  !    \    \    \    \    \    \    \    !    7个  0
+     *           <--  \    \    \    \    \    \    \    \     8个  1
+     *           ... ...
+     * @param slot 1 ~ slotCount
+     * @return slot位置的角度，范围为 -maxSlotDeg() ~ maxSlotDeg()
+     */
+    public float slotDeg(float accumDeg, int slot) {
+        // accumDeg % interItemDeg: 0 ~ interItemDeg，当向下滑动到头时，会变为负值。
+        float driveDeg = accumDeg % interItemDeg + wheelViewDeg/2; // 60 ~ 60+x
+        return driveDeg - slot*interItemDeg;
+    }
+
+    /**
+     * @return slotDeg的最大绝对值
+     */
+    public float maxSlotDeg() {
+        return wheelViewDeg/2 + interItemDeg;
+    }
+}
@@ -0,0 +1,89 @@
+package com.chenzhifei.wheelview.core;
+
+/**
+ * 用纯Java计算WheelView中item的透视矩阵，代替Graphics.Camera(每次调用都要经过JNI)。
+ * 矩阵的9个值按android.graphics.Matrix的顺序排列。
+ *
+ * 与下面的Camera调用结果相同：
+ *     camera.setLocation(0, 0, -cameraDistance / 72);
+ *     camera.rotateX(deg);
+ *     camera.translate(0, 0, -wheelRadius);
+ *     camera.getMatrix(matrix);
+ *     matrix.preTranslate(-pivotX, -pivotY);
+ *     matrix.postTranslate(pivotX, pivotY);
+ *
+ * camera在(0, 0, -L)，item先平移到z = -R，再绕x轴旋转θ，item上的点(x, y)变为：
+ *     (x, R*sinθ - y*cosθ, -R*cosθ - y*sinθ)   (camera的y轴与屏幕相反)
+ * 投影到屏幕上：
+ *     X = L*x / (L - R*cosθ - y*sinθ)
+ *     Y = L*(y*cosθ - R*sinθ) / (L - R*cosθ - y*sinθ)
+ */
+
+public final class WheelProjection {
+
+    // same indexes as android.graphics.Matrix.getValues/setValues
+    public static final int MSCALE_X = 0;
+    public static final int MSKEW_X = 1;
+    public static final int MTRANS_X = 2;
+    public static final int MSKEW_Y = 3;
+    public static final int MSCALE_Y = 4;
+    public static final int MTRANS_Y = 5;
+    public static final int MPERSP_0 = 6;
+    public static final int MPERSP_1 = 7;
+    public static final int MPERSP_2 = 8;
+
+    // indexes of getViewTransform's output
+    public static final int VIEW_SCALE = 0;
+    public static final int VIEW_TRANSLATION_Y = 1;
+
+    private WheelProjection() {
+    }
+
+    /**
+     * @param deg            绕x轴旋转的角度
+     * @param wheelRadius    item到旋转轴的距离
+     * @param cameraDistance camera到屏幕的距离，单位为像素
+     * @param pivotX         变换的原点
+     * @param pivotY         变换的原点
+     * @param outValues      矩阵的9个值，用Matrix.setValues设置
+     */
+    public static void getMatrixValues(float deg, float wheelRadius, float cameraDistance,
+                                float pivotX, float pivotY, float[] outValues) {
+        double radian = deg * WheelGeometry.DEG_TO_RADIAN;
+        float sin = (float) Math.sin(radian);
+        float cos = (float) Math.cos(radian);
+
+        float depth = cameraDistance - wheelRadius * cos;
+        float scaleX = cameraDistance / depth;
+        float scaleY = cameraDistance * cos / depth;
+        float transY = -cameraDistance * wheelRadius * sin / depth;
+        float persp1 = -sin / depth;
+
+        // postTranslate(pivotX, pivotY) * m * preTranslate(-pivotX, -pivotY)
+        float persp2 = 1f - persp1 * pivotY;
+        outValues[MSCALE_X] = scaleX;
+        outValues[MSKEW_X] = pivotX * persp1;
+        outValues[MTRANS_X] = pivotX * persp2 - scaleX * pivotX;
+        outValues[MSKEW_Y] = 0f;
+        outValues[MSCALE_Y] = scaleY + pivotY * persp1;
+        outValues[MTRANS_Y] = transY - scaleY * pivotY + pivotY * persp2;
+        outValues[MPERSP_0] = 0f;
+        outValues[MPERSP_1] = persp1;
+        outValues[MPERSP_2] = persp2;
+    }
+
+    /**
+     * 用View的属性得到与getMatrixValues相同的投影，见WheelLayoutManager：
+     * item中心投影到 Y = -L*R*sinθ / (L - R*cosθ)，缩放 L / (L - R*cosθ)；
+     * 缩放再除以居中item的缩放 L / (L-R)，使居中的View保持原来的大小。
+     * 以item中心为pivot时，translationY与getMatrixValues中pivot的位移相同。
+     * @param outValues 长度至少为2，VIEW_SCALE和VIEW_TRANSLATION_Y
+     */
+    public static void getViewTransform(float deg, float wheelRadius, float cameraDistance,
+                                        float[] outValues) {
+        double radian = deg * WheelGeometry.DEG_TO_RADIAN;
+        float depth = cameraDistance - wheelRadius * (float) Math.cos(radian);
+        outValues[VIEW_SCALE] = (cameraDistance - wheelRadius) / depth;
+        outValues[VIEW_TRANSLATION_Y] = -cameraDistance * wheelRadius * (float) Math.sin(radian) / depth;
+    }
+}
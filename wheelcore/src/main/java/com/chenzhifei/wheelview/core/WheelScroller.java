@@ -0,0 +1,495 @@
+package com.chenzhifei.wheelview.core;
+
+/**
+ * WheelView的滑动物理：手指拖动(含溢出阻尼)、惯性滑动、停止时对齐item、溢出后回弹。
+ * 每帧调用一次doFrame，按实际的帧间隔积分。不依赖Android。
+ *
+ * PHYSICS_STEPPED: 速度逐帧线性衰减，低于MIN_VELOCITY后再逐帧对齐到item。
+ * PHYSICS_ANALYTIC: 手指离开时用ExponentialFling算出停止的item和完整轨迹，每帧按时间取值。
+ */
+
+public class WheelScroller {
+
+    public static final int STATE_IDLE = 0;
+    public static final int STATE_SLIDING = 1;
+    public static final int STATE_NORMAL_CLAMP = 2;
+    public static final int STATE_MAX_MIN_CLAMP = 3;
+    public static final int STATE_ANALYTIC_FLING = 4;
+    public static final int STATE_SCROLL_TO = 5;
+
+    public static final int PHYSICS_STEPPED = 0;
+    public static final int PHYSICS_ANALYTIC = 1;
+
+    public static final float DEFAULT_FLING_TIME_CONSTANT = 0.35f; // seconds
+
+    // results of doFrame()
+    public static final int FRAME_IDLE = 0;    // nothing changed.
+    public static final int FRAME_MOVED = 1;   // distanceY may be changed.
+    public static final int FRAME_SETTLED = 2; // clamp completed, stopped at an item.
+
+    private static final float MIN_VELOCITY = 50f; // pixels/second
+    private static final int RESISTANCE_FACTOR = 4; // valid updateY become 1/4 when is overscrolling.
+    private static final float CLAMP_MAX_MIN_DEG_PER_SECOND = 120f; // four times as normal.
+    private static final float CLAMP_NORMAL_DEG_PER_SECOND = 30f; // 0.5°/16.67ms
+
+    // physics are integrated over the real frame time, constants above are defined at 60fps.
+    public static final float REFERENCE_FRAME_SECONDS = 1f / 60f;
+    private static final float MAX_FRAME_SECONDS = 0.05f; // avoid a big jump after a long frame.
+
+    private final WheelGeometry geometry;
+
+    private float distanceY = 0f; // camera's y axis direction is opposite to screen's.
+    private float yVelocity = 0f;   // pixels/second
+    private boolean isInfinity = false;
+    private float yVelocityReduce = 50f; //decrease 50 pixels/second every REFERENCE_FRAME_SECONDS
+    private float willToDeg = 0f;
+
+    private int physics = PHYSICS_STEPPED;
+    private final ExponentialFling analyticFling = new ExponentialFling();
+    private float flingTimeConstant = DEFAULT_FLING_TIME_CONSTANT;
+    private float flingElapsedSeconds;
+
+    // scrollTo: ease out from scrollStartDeg to willToDeg in scrollDurationSeconds.
+    private static final float SCROLL_SECONDS_PER_ITEM = 0.04f;
+    private static final float MIN_SCROLL_SECONDS = 0.15f;
+    private float scrollStartDeg;
+    private float scrollDurationSeconds;
+    private float scrollElapsedSeconds;
+
+    private int state = STATE_IDLE;
+    private long lastFrameTimeNanos = 0;
+    private long lastInputTimeNanos = 0; // time of the latest updateY with a timestamp, 0: unknown
+    private boolean firstFrameAfterInput = false;
+
+    public WheelScroller(WheelGeometry geometry) {
+        this.geometry = geometry;
+    }
+
+    /**
+     * @param yVelocityReduce 每REFERENCE_FRAME_SECONDS减少的速度，像素/秒。小于等于0表示不衰减。
+     */
+    public void setYVelocityReduce(float yVelocityReduce) {
+        if (yVelocityReduce <= 0f) {
+            this.isInfinity = true;
+            this.yVelocityReduce = 0f;
+        } else {
+            this.isInfinity = false;
+            this.yVelocityReduce = yVelocityReduce;
+        }
+    }
+
+    /**
+     * @param physics PHYSICS_STEPPED, PHYSICS_ANALYTIC，下一次fling生效
+     */
+    public void setPhysics(int physics) {
+        this.physics = physics;
+    }
+
+    public int getPhysics() {
+        return physics;
+    }
+
+    /**
+     * PHYSICS_ANALYTIC的速度衰减时间常数τ：速度每经过τ秒衰减为原来的1/e，滑动距离为 v0*τ。
+     * @param seconds 大于0
+     */
+    public void setFlingTimeConstant(float seconds) {
+        if (seconds <= 0f) {
+            throw new IllegalArgumentException("fling time constant must be positive");
+        }
+        this.flingTimeConstant = seconds;
+    }
+
+    /**
+     * 手指拖动，溢出的部分有阻尼：溢出区域内每移动1像素需要手指滑动RESISTANCE_FACTOR像素。
+     * 阻尼按区间分段计算，movedY跨过两头的边界时只有边界外的部分有阻尼，
+     * 所以多次小的updateY与一次合并的updateY结果相同。
+     * @param movedY 手指滑动的像素值
+     */
+    public void updateY(float movedY) {
+        if (geometry.isCyclic()) {
+            distanceY += movedY;
+            wrapCyclic();
+            return;
+        }
+        // accumDeg 0 ~ maxSlideDeg, camera's y axis is opposite: distanceY lower ~ 0
+        float lower = geometry.toDistanceY(geometry.getMaxSlideDeg());
+        float upper = 0f;
+        float y = distanceY;
+        boolean mirrored = movedY < 0f;
+        if (mirrored) { // only the positive direction is handled below.
+            y = -y;
+            movedY = -movedY;
+            float mirroredLower = -upper;
+            upper = -lower;
+            lower = mirroredLower;
+        }
+        if (y < lower) { // coming back from the overscroll, resisted.
+            float resisted = (lower - y) * RESISTANCE_FACTOR;
+            if (movedY <= resisted) {
+                y += movedY / RESISTANCE_FACTOR;
+                movedY = 0f;
+            } else {
+                y = lower;
+                movedY -= resisted;
+            }
+        }
+        if (movedY > 0f && y < upper) { // inside, no resistance.
+            float free = upper - y;
+            if (movedY <= free) {
+                y += movedY;
+                movedY = 0f;
+            } else {
+                y = upper;
+                movedY -= free;
+            }
+        }
+        y += movedY / RESISTANCE_FACTOR; // going out, resisted.
+        distanceY = mirrored ? -y : y;
+    }
+
+    /**
+     * 同updateY(float)，并记录这次移动对应的输入事件时间。
+     * 之后的fling从这个时间开始计算第一帧的时长，而不是假设为一帧。
+     * @param eventTimeNanos 输入事件的时间，与doFrame的frameTimeNanos相同的时间基准
+     */
+    public void updateY(float movedY, long eventTimeNanos) {
+        updateY(movedY);
+        lastInputTimeNanos = eventTimeNanos;
+    }
+
+    /**
+     * @return 最近一次updateY(float, long)的事件时间，0表示没有
+     */
+    public long getLastInputTimeNanos() {
+        return lastInputTimeNanos;
+    }
+
+    /**
+     * 开始惯性滑动，之后每帧调用doFrame。
+     * @param yVelocity 像素/秒，可为0
+     */
+    public void fling(float yVelocity) {
+        // the fling starts where the finger left, at the time of the latest input.
+        lastFrameTimeNanos = lastInputTimeNanos;
+        firstFrameAfterInput = lastInputTimeNanos != 0;
+        lastInputTimeNanos = 0;
+        if (physics == PHYSICS_ANALYTIC) {
+            float distanceToDeg = geometry.getDistanceToDeg();
+            analyticFling.start(geometry, getAccumDeg(), -yVelocity * distanceToDeg, flingTimeConstant);
+            flingElapsedSeconds = 0f;
+            willToDeg = analyticFling.getFinalDeg();
+            this.yVelocity = -analyticFling.getStartDegVelocity() / distanceToDeg;
+            state = STATE_ANALYTIC_FLING;
+            return;
+        }
+        this.yVelocity = yVelocity;
+        state = STATE_SLIDING;
+    }
+
+    /**
+     * PHYSICS_ANALYTIC滑动中改为停在index位置的item，从当前位置重新计算轨迹。
+     * 不在STATE_ANALYTIC_FLING时不做任何事。循环模式下停在离原来目标最近的一圈。
+     */
+    public void retargetFling(int index) {
+        if (state != STATE_ANALYTIC_FLING) {
+            return;
+        }
+        float targetDeg = geometry.degOfIndex(index);
+        if (geometry.isCyclic()) {
+            float periodDeg = geometry.getPeriodDeg();
+            targetDeg += Math.round((willToDeg - targetDeg) / periodDeg) * periodDeg;
+        }
+        analyticFling.startTo(getAccumDeg(), targetDeg, flingTimeConstant);
+        flingElapsedSeconds = 0f;
+        willToDeg = analyticFling.getFinalDeg();
+        yVelocity = -analyticFling.getStartDegVelocity() / geometry.getDistanceToDeg();
+    }
+
+    /**
+     * 动画滚动到index位置的item，动画时间不超过maxDurationSeconds。
+     * 距离较远时先直接跳到离目标2*slotCount个item的位置，只有最后这段有动画，中间的item不绘制。
+     * 之后每帧调用doFrame。
+     */
+    public void scrollTo(int index, float maxDurationSeconds) {
+        int maxAnimatedItems = 2 * geometry.getSlotCount();
+        float targetDeg = geometry.degOfIndex(index);
+        float currentDeg = getAccumDeg();
+        if (geometry.isCyclic()) { // go the shorter way around.
+            float periodDeg = geometry.getPeriodDeg();
+            targetDeg += Math.round((currentDeg - targetDeg) / periodDeg) * periodDeg;
+        }
+        float animatedDeg = maxAnimatedItems * geometry.getInterItemDeg();
+        if (targetDeg - currentDeg > animatedDeg) {
+            currentDeg = targetDeg - animatedDeg;
+        } else if (currentDeg - targetDeg > animatedDeg) {
+            currentDeg = targetDeg + animatedDeg;
+        }
+
+        float items = Math.abs(targetDeg - currentDeg) / geometry.getInterItemDeg();
+        scrollStartDeg = currentDeg;
+        scrollDurationSeconds = Math.min(maxDurationSeconds,
+                MIN_SCROLL_SECONDS + items * SCROLL_SECONDS_PER_ITEM);
+        scrollElapsedSeconds = 0f;
+        distanceY = geometry.toDistanceY(currentDeg);
+        willToDeg = targetDeg;
+        yVelocity = 0f;
+        lastFrameTimeNanos = 0;
+        firstFrameAfterInput = false;
+        state = STATE_SCROLL_TO;
+    }
+
+    /**
+     * @return PHYSICS_ANALYTIC滑动或scrollTo时，最终停止的item的索引；其他情况返回-1
+     */
+    public int getPredictedIndex() {
+        if (state != STATE_ANALYTIC_FLING && state != STATE_SCROLL_TO) {
+            return -1;
+        }
+        return geometry.nearestIndex(willToDeg);
+    }
+
+    public void stop() {
+        yVelocity = 0f;
+        firstFrameAfterInput = false;
+        state = STATE_IDLE;
+    }
+
+    /**
+     * @param frameTimeNanos 这一帧的时间
+     * @return FRAME_IDLE, FRAME_MOVED, FRAME_SETTLED
+     */
+    public int doFrame(long frameTimeNanos) {
+        float frameSeconds = lastFrameTimeNanos == 0 ? REFERENCE_FRAME_SECONDS
+                : (frameTimeNanos - lastFrameTimeNanos) / 1000000000f;
+        lastFrameTimeNanos = frameTimeNanos;
+        if (firstFrameAfterInput) { // the finger may have rested before leaving.
+            firstFrameAfterInput = false;
+            return step(Math.max(0f, Math.min(frameSeconds, MAX_FRAME_SECONDS)));
+        }
+        if (state == STATE_ANALYTIC_FLING || state == STATE_SCROLL_TO) {
+            // the trajectory is a function of time, a long frame just samples a later point.
+            return step(Math.max(0f, frameSeconds));
+        }
+        frameSeconds = Math.max(0f, Math.min(frameSeconds, MAX_FRAME_SECONDS));
+        return step(frameSeconds);
+    }
+
+    /**
+     * 前进frameSeconds秒。
+     * @return FRAME_IDLE, FRAME_MOVED, FRAME_SETTLED
+     */
+    public int step(float frameSeconds) {
+        int result;
+        switch (state) {
+            case STATE_SLIDING:
+                handleAnimSliding(frameSeconds);
+                result = FRAME_MOVED;
+                break;
+            case STATE_NORMAL_CLAMP:
+                result = clampItemDeg(CLAMP_NORMAL_DEG_PER_SECOND * frameSeconds);
+                break;
+            case STATE_MAX_MIN_CLAMP:
+                result = clampItemDeg(CLAMP_MAX_MIN_DEG_PER_SECOND * frameSeconds);
+                break;
+            case STATE_ANALYTIC_FLING:
+                result = analyticFlingStep(frameSeconds);
+                break;
+            case STATE_SCROLL_TO:
+                result = scrollToStep(frameSeconds);
+                break;
+            default:
+                return FRAME_IDLE;
+        }
+        wrapCyclic();
+        return result;
+    }
+
+    /**
+     * 循环模式下把角度归一化到 0 ~ periodDeg，进行中的动画目标一起平移，
+     * 避免长时间单向滑动后distanceY过大而损失float精度。
+     */
+    private void wrapCyclic() {
+        if (!geometry.isCyclic()) {
+            return;
+        }
+        float periodDeg = geometry.getPeriodDeg();
+        float accumDeg = getAccumDeg();
+        if (accumDeg >= 0f && accumDeg < periodDeg) {
+            return;
+        }
+        float shiftDeg = (float) Math.floor(accumDeg / periodDeg) * periodDeg;
+        distanceY = geometry.toDistanceY(accumDeg - shiftDeg);
+        willToDeg -= shiftDeg;
+        scrollStartDeg -= shiftDeg;
+        analyticFling.offset(-shiftDeg);
+    }
+
+    private int analyticFlingStep(float frameSeconds) {
+        flingElapsedSeconds += frameSeconds;
+        float distanceToDeg = geometry.getDistanceToDeg();
+        distanceY = -analyticFling.degAt(flingElapsedSeconds) / distanceToDeg;
+        if (analyticFling.isFinished(flingElapsedSeconds)) {
+            yVelocity = 0f;
+            state = STATE_IDLE;
+            return FRAME_SETTLED;
+        }
+        yVelocity = -analyticFling.degVelocityAt(flingElapsedSeconds) / distanceToDeg;
+        return FRAME_MOVED;
+    }
+
+    private int scrollToStep(float frameSeconds) {
+        scrollElapsedSeconds += frameSeconds;
+        if (scrollElapsedSeconds >= scrollDurationSeconds) {
+            distanceY = geometry.toDistanceY(willToDeg);
+            state = STATE_IDLE;
+            return FRAME_SETTLED;
+        }
+        float remaining = 1f - scrollElapsedSeconds / scrollDurationSeconds;
+        float fraction = 1f - remaining * remaining * remaining; // cubic ease out
+        distanceY = geometry.toDistanceY(scrollStartDeg + (willToDeg - scrollStartDeg) * fraction);
+        return FRAME_MOVED;
+    }
+
+    private int clampItemDeg(float clampDeltaDeg) {
+        float distanceToDeg = geometry.getDistanceToDeg();
+        if (Math.abs(-distanceY*distanceToDeg - willToDeg) <= clampDeltaDeg) { // complete.
+            distanceY = -willToDeg / distanceToDeg;
+            state = STATE_IDLE;
+            return FRAME_SETTLED;
+        } else { // continue clamp.
+            if (-distanceY*distanceToDeg < willToDeg) {        // go forward to next item.
+                distanceY -= clampDeltaDeg / distanceToDeg; // 'increase' distanceY.
+            } else if (-distanceY*distanceToDeg > willToDeg) { // go back to previous item.
+                distanceY += clampDeltaDeg / distanceToDeg; // 'decrease' distanceY.
+            }
+            return FRAME_MOVED;
+        }
+    }
+
+    private void handleAnimSliding(float frameSeconds) {
+        float accumDeg = getAccumDeg();
+        // 先判断再updateY，就会有溢出效果：此次事件时判断成立，updateY后下次事件就会溢出。
+        if (geometry.isCyclic()) { // 循环模式没有头
+            decelerationSliding(frameSeconds);
+        } else if (accumDeg > geometry.getMaxSlideDeg()) {// 向上滑动到头并溢出
+            yVelocity = 0f;
+
+            willToDeg = geometry.getMaxSlideDeg(); // 向下返回到maxSlideDeg
+            state = STATE_MAX_MIN_CLAMP;
+
+        } else if(accumDeg < 0f){ // 向下滑动到头并溢出
+            yVelocity = 0f;
+
+            willToDeg = 0f; // 向上返回到0
+            state = STATE_MAX_MIN_CLAMP;
+
+        } else {
+            decelerationSliding(frameSeconds); // 惯性滑动
+        }
+    }
+
+    private void decelerationSliding(float frameSeconds) {
+        updateY(yVelocity * frameSeconds);
+
+        if (Math.abs(yVelocity) <= MIN_VELOCITY) { // clamp item deg
+            yVelocity = 0f;
+            willToDeg = geometry.snapDeg(getAccumDeg());
+            state = STATE_NORMAL_CLAMP;
+            return;
+        }
+
+        if (!isInfinity) {
+            // decrease the velocities.
+            // 'Math.abs(yVelocity) <= velocityReduce' make sure the yVelocity will be 0 finally.
+            float velocityReduce = yVelocityReduce * frameSeconds / REFERENCE_FRAME_SECONDS;
+            yVelocity = Math.abs(yVelocity) <= velocityReduce ? 0f :
+                    (yVelocity > 0 ? yVelocity - velocityReduce : yVelocity + velocityReduce);
+        }
+    }
+
+    /**
+     * 当前位置之前插入、删除item后调用，当前位置和进行中的动画(包括目标)一起平移，
+     * 居中的item和滑动的速度不变。之后调用onItemCountChanged检查目标是否超出范围。
+     * @param deltaDeg 平移的角度，通常为item个数 * interItemDeg
+     */
+    public void offsetDeg(float deltaDeg) {
+        distanceY = geometry.toDistanceY(getAccumDeg() + deltaDeg);
+        willToDeg += deltaDeg;
+        scrollStartDeg += deltaDeg;
+        analyticFling.offset(deltaDeg);
+    }
+
+    /**
+     * 局部插入、删除、移动item后调用，在geometry.setItemCount(新的个数)之后：居中的item从oldIndex
+     * 变为newIndex，当前位置和进行中的动画一起平移，离居中item的偏移和滑动的速度不变。
+     * 循环模式下保持当前的圈数：按修改前的个数分出圈数，再按修改后的个数重建位置，最后才归一化，
+     * 在首尾接缝附近修改也居中原来的item。之后的处理同onItemCountChanged。
+     * @param oldItemCount 修改前的item个数
+     * @param oldIndex     修改前居中item的索引
+     * @param newIndex     修改后居中item的索引
+     */
+    public void onItemsMutated(int oldItemCount, int oldIndex, int newIndex) {
+        float interItemDeg = geometry.getInterItemDeg();
+        if (geometry.isCyclic() && oldItemCount > 0) {
+            float accumDeg = getAccumDeg();
+            // not nearestIndex(), it has wrapped the lap away.
+            int nearestItem = Math.round(accumDeg / interItemDeg);
+            int lap = (int) Math.floor((double) nearestItem / oldItemCount);
+            float itemOffsetDeg = accumDeg - nearestItem * interItemDeg;
+            float newAccumDeg = ((long) lap * geometry.getItemCount() + newIndex) * interItemDeg
+                    + itemOffsetDeg;
+            offsetDeg(newAccumDeg - accumDeg);
+        } else if (newIndex != oldIndex) {
+            offsetDeg((newIndex - oldIndex) * interItemDeg);
+        }
+        onItemCountChanged();
+    }
+
+    /**
+     * item个数变化后调用，正在对齐的目标超出范围时改为第一个或最后一个item。
+     */
+    public void onItemCountChanged() {
+        if (geometry.isCyclic()) {
+            wrapCyclic();
+            return;
+        }
+        if (willToDeg > geometry.getMaxSlideDeg() || willToDeg < 0f) {
+            willToDeg = Math.max(0f, Math.min(willToDeg, geometry.getMaxSlideDeg()));
+            if (state == STATE_ANALYTIC_FLING) { // re-plan the rest of the curve to the new end.
+                fling(-analyticFling.degVelocityAt(flingElapsedSeconds) / geometry.getDistanceToDeg());
+            }
+        }
+    }
+
+    /**
+     * 直接定位到index位置的item。
+     */
+    public void scrollToIndex(int index) {
+        distanceY = geometry.toDistanceY(geometry.degOfIndex(index));
+    }
+
+    public float getDistanceY() {
+        return distanceY;
+    }
+
+    public void setDistanceY(float distanceY) {
+        this.distanceY = distanceY;
+    }
+
+    public float getAccumDeg() {
+        return geometry.toDeg(distanceY);
+    }
+
+    public float getYVelocity() {
+        return yVelocity;
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    public boolean isAnimating() {
+        return state != STATE_IDLE;
+    }
+}
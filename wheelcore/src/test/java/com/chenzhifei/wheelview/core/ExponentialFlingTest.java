@@ -0,0 +1,124 @@
+package com.chenzhifei.wheelview.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExponentialFlingTest {
+
+    private static final float TAU = WheelScroller.DEFAULT_FLING_TIME_CONSTANT;
+    private static final float EPSILON = 1e-3f;
+
+    private WheelGeometry geometry;
+    private ExponentialFling fling;
+    private float inter;
+
+    @Before
+    public void setUp() {
+        geometry = new WheelGeometry(7, 130f); // interItemDeg 16.25
+        geometry.setItemCount(100);
+        geometry.setProjectionY(300f);
+        fling = new ExponentialFling();
+        inter = geometry.getInterItemDeg();
+    }
+
+    @Test
+    public void landsOnTheItemNearestToTheRestingDeg() {
+        float startDeg = 10.3f * inter;
+        float velocity = 400f;
+        fling.start(geometry, startDeg, velocity, TAU);
+        float resting = ExponentialFling.restingDeg(startDeg, velocity, TAU);
+        assertEquals(startDeg + velocity * TAU, resting, EPSILON);
+        assertEquals(geometry.snapDeg(resting), fling.getFinalDeg(), EPSILON);
+        assertEquals(startDeg, fling.degAt(0f), EPSILON);
+        assertEquals(fling.getFinalDeg(), fling.degAt(fling.getDurationSeconds()), 0f);
+        assertEquals(fling.getFinalDeg(), fling.degAt(10f), 0f);
+    }
+
+    @Test
+    public void velocityIsAdjustedToStopExactlyOnTheItem() {
+        float startDeg = 10.3f * inter;
+        fling.start(geometry, startDeg, -333f, TAU);
+        float distance = fling.getFinalDeg() - startDeg;
+        float duration = fling.getDurationSeconds();
+        // ∫v dt from 0 to T, with v normalized by 1 - e^(-T/τ).
+        float travelled = fling.getStartDegVelocity() * TAU
+                * (1f - (float) Math.exp(-duration / TAU));
+        assertEquals(distance, travelled, 0.01f);
+        assertTrue(fling.getStartDegVelocity() < 0f);
+        assertEquals(0f, fling.degVelocityAt(duration), 0f);
+    }
+
+    @Test
+    public void durationEndsWhenTheRemainingDistanceIsSmall() {
+        float startDeg = 0f;
+        fling.start(geometry, startDeg, 300f, TAU);
+        float distance = fling.getFinalDeg() - startDeg;
+        float duration = fling.getDurationSeconds();
+        assertEquals(TAU * (float) Math.log(Math.abs(distance) / 0.05f), duration, EPSILON);
+        assertFalse(fling.isFinished(duration - 0.001f));
+        assertTrue(fling.isFinished(duration));
+        assertEquals(fling.getFinalDeg(), fling.degAt(duration - 0.001f), 0.05f);
+
+        // monotonic, no overshoot.
+        float last = startDeg;
+        for (float t = 0f; t <= duration; t += 1f / 60f) {
+            float deg = fling.degAt(t);
+            assertTrue(deg >= last && deg <= fling.getFinalDeg() + EPSILON);
+            last = deg;
+        }
+    }
+
+    @Test
+    public void tinyDistanceFinishesImmediately() {
+        fling.start(geometry, 4f * inter + 0.01f, 0f, TAU);
+        assertEquals(4f * inter, fling.getFinalDeg(), EPSILON);
+        assertEquals(0f, fling.getDurationSeconds(), 0f);
+        assertTrue(fling.isFinished(0f));
+    }
+
+    @Test
+    public void landingIsClampedToTheFirstAndLastItem() {
+        fling.start(geometry, 50f * inter, 1e6f, TAU);
+        assertEquals(geometry.getMaxSlideDeg(), fling.getFinalDeg(), EPSILON);
+        fling.start(geometry, 50f * inter, -1e6f, TAU);
+        assertEquals(0f, fling.getFinalDeg(), EPSILON);
+
+        // released while overscrolled, with no velocity: back to the edge.
+        fling.start(geometry, -0.8f * inter, 0f, TAU);
+        assertEquals(0f, fling.getFinalDeg(), EPSILON);
+        fling.start(geometry, geometry.getMaxSlideDeg() + 0.8f * inter, 0f, TAU);
+        assertEquals(geometry.getMaxSlideDeg(), fling.getFinalDeg(), EPSILON);
+    }
+
+    @Test
+    public void cyclicLandingIsNotClamped() {
+        geometry.setCyclic(true);
+        fling.start(geometry, 98f * inter, 10f * inter / TAU, TAU);
+        assertEquals(108f * inter, fling.getFinalDeg(), EPSILON);
+        fling.start(geometry, inter, -3f * inter / TAU, TAU);
+        assertEquals(-2f * inter, fling.getFinalDeg(), EPSILON);
+    }
+
+    @Test
+    public void startToStopsOnTheGivenDeg() {
+        fling.startTo(3.7f * inter, 12f * inter, TAU);
+        assertEquals(12f * inter, fling.getFinalDeg(), EPSILON);
+        assertEquals(3.7f * inter, fling.degAt(0f), EPSILON);
+        assertEquals(12f * inter, fling.degAt(fling.getDurationSeconds()), EPSILON);
+        assertTrue(fling.getStartDegVelocity() > 0f);
+    }
+
+    @Test
+    public void offsetMovesTheWholeCurve() {
+        fling.start(geometry, 20f * inter, 200f, TAU);
+        float finalDeg = fling.getFinalDeg();
+        float midDeg = fling.degAt(0.1f);
+        fling.offset(-5f * inter);
+        assertEquals(finalDeg - 5f * inter, fling.getFinalDeg(), EPSILON);
+        assertEquals(midDeg - 5f * inter, fling.degAt(0.1f), EPSILON);
+    }
+}
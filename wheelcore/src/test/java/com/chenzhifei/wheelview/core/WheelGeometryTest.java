@@ -0,0 +1,136 @@
+package com.chenzhifei.wheelview.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WheelGeometryTest {
+
+    private static final float EPSILON = 1e-3f;
+
+    @Test
+    public void interItemDegIsTheArcDividedBySlots() {
+        assertEquals(15f, new WheelGeometry(7).getInterItemDeg(), 0f);
+        assertEquals(16.25f, new WheelGeometry(7, 130f).getInterItemDeg(), 0f);
+        assertEquals(100f / 14f, new WheelGeometry(13, 100f).getInterItemDeg(), EPSILON);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void evenShowItemsIsRejected() {
+        new WheelGeometry(6);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyShowItemsIsRejected() {
+        new WheelGeometry(WheelGeometry.MAX_SHOW_ITEMS + 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void arcOutOfRangeIsRejected() {
+        new WheelGeometry(7, WheelGeometry.MAX_WHEEL_VIEW_DEG + 1f);
+    }
+
+    @Test
+    public void maxSlideDegEndsAtTheLastItem() {
+        WheelGeometry geometry = new WheelGeometry(7, 130f);
+        geometry.setItemCount(40);
+        assertEquals(geometry.degOfIndex(39), geometry.getMaxSlideDeg(), EPSILON);
+        geometry.setItemCount(1);
+        assertEquals(0f, geometry.getMaxSlideDeg(), EPSILON);
+    }
+
+    @Test
+    public void indexAtTruncatesLikeSlotDeg() {
+        WheelGeometry geometry = new WheelGeometry(7, 130f); // interItemDeg 16.25
+        float inter = geometry.getInterItemDeg();
+        assertEquals(0, geometry.indexAt(0f));
+        assertEquals(3, geometry.indexAt(3.01f * inter));
+        assertEquals(2, geometry.indexAt(2.99f * inter));
+        // overscrolled past the first item: the remainder becomes negative, like slotDeg's.
+        assertEquals(0, geometry.indexAt(-0.5f * inter));
+        assertEquals(-1, geometry.indexAt(-1.5f * inter));
+    }
+
+    @Test
+    public void slotsShowTheItemsAroundAccumDeg() {
+        for (int showItems = 1; showItems <= WheelGeometry.MAX_SHOW_ITEMS; showItems += 6) {
+            WheelGeometry geometry = new WheelGeometry(showItems, 137.5f);
+            float inter = geometry.getInterItemDeg();
+            for (float accumDeg = -3.3f * inter; accumDeg < 12f * inter; accumDeg += 0.37f * inter) {
+                int first = geometry.firstSlotItemIndex(accumDeg);
+                for (int slot = 1; slot <= geometry.getSlotCount(); slot++) {
+                    float itemDeg = accumDeg - geometry.degOfIndex(first + slot - 1);
+                    assertEquals("showItems " + showItems + ", accumDeg " + accumDeg
+                            + ", slot " + slot, itemDeg, geometry.slotDeg(accumDeg, slot), EPSILON);
+                    assertTrue(Math.abs(itemDeg) <= geometry.maxSlotDeg() + EPSILON);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void nearestIndexIsClampedToTheItems() {
+        WheelGeometry geometry = new WheelGeometry(7, 130f);
+        geometry.setItemCount(10);
+        float inter = geometry.getInterItemDeg();
+        assertEquals(2, geometry.nearestIndex(2.4f * inter));
+        assertEquals(3, geometry.nearestIndex(2.6f * inter));
+        assertEquals(0, geometry.nearestIndex(-0.4f * inter));
+        assertEquals(0, geometry.nearestIndex(-3f * inter));
+        assertEquals(9, geometry.nearestIndex(25f * inter));
+        assertEquals(-0.4f, geometry.nearestOffset(-0.4f * inter), EPSILON);
+        assertEquals(0.6f, geometry.nearestOffset(9.6f * inter), EPSILON);
+    }
+
+    @Test
+    public void nearestIndexWrapsInCyclicMode() {
+        WheelGeometry geometry = new WheelGeometry(7, 130f);
+        geometry.setItemCount(10);
+        geometry.setCyclic(true);
+        float inter = geometry.getInterItemDeg();
+        assertEquals(9, geometry.nearestIndex(-1f * inter));
+        assertEquals(9, geometry.nearestIndex(-0.6f * inter));
+        assertEquals(0, geometry.nearestIndex(-0.4f * inter));
+        assertEquals(3, geometry.nearestIndex(23.2f * inter));
+        assertEquals(-0.4f, geometry.nearestOffset(-0.4f * inter), EPSILON);
+        assertEquals(7, geometry.wrapIndex(-13));
+        assertEquals(0, geometry.wrapIndex(-10));
+    }
+
+    @Test
+    public void snapDegRoundsHalfUp() {
+        WheelGeometry geometry = new WheelGeometry(7, 130f);
+        float inter = geometry.getInterItemDeg();
+        assertEquals(2f * inter, geometry.snapDeg(2.4f * inter), EPSILON);
+        assertEquals(3f * inter, geometry.snapDeg(2.6f * inter), EPSILON);
+        assertEquals(3f * inter, geometry.snapDeg(2.5f * inter), EPSILON);
+        assertEquals(0f, geometry.snapDeg(-0.4f * inter), EPSILON);
+        assertEquals(-inter, geometry.snapDeg(-0.6f * inter), EPSILON);
+        assertEquals(-inter, geometry.snapDeg(-1.5f * inter), EPSILON);
+    }
+
+    @Test
+    public void edgeOfTheArcIsProjectedToProjectionY() {
+        for (float arc = WheelGeometry.MIN_WHEEL_VIEW_DEG; arc <= WheelGeometry.MAX_WHEEL_VIEW_DEG;
+             arc += 10f) {
+            WheelGeometry geometry = new WheelGeometry(7, arc);
+            geometry.setProjectionY(400f);
+            float radius = geometry.getWheelRadius();
+            float cameraDistance = geometry.getCameraDistance();
+            double radian = Math.toRadians(arc / 2);
+            double projected = cameraDistance * radius * Math.sin(radian)
+                    / (cameraDistance - radius * Math.cos(radian));
+            assertEquals("arc " + arc, 400.0, projected, 0.05);
+        }
+    }
+
+    @Test
+    public void distanceAndDegConvertBothWays() {
+        WheelGeometry geometry = new WheelGeometry(7);
+        geometry.setProjectionY(300f);
+        assertEquals(-123.4f, geometry.toDistanceY(geometry.toDeg(-123.4f)), EPSILON);
+        // camera's y axis is opposite to the screen's: moving up increases accumDeg.
+        assertTrue(geometry.toDeg(-10f) > 0f);
+    }
+}
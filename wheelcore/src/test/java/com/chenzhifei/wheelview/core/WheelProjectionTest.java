@@ -0,0 +1,264 @@
+package com.chenzhifei.wheelview.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * WheelProjection与android.graphics.Camera的结果比较。
+ * JVM上没有Camera，ReferenceCamera按Skia的Sk3DView/SkCamera3D(Camera的native实现)逐步计算，
+ * 包括patch、orientation矩阵和patchToMatrix，再在外面做preTranslate/postTranslate。
+ */
+
+public class WheelProjectionTest {
+
+    private static final float[] ARCS = {30f, WheelGeometry.WHEEL_VIEW_DEG, 160f};
+    private static final float[] PROJECTION_YS = {48f, 333.3f, 1200f};
+    private static final float[][] PIVOTS = {{0f, 0f}, {240f, 36.5f}, {-75.25f, 512f}};
+
+    @Test
+    public void matchesCameraAcrossAnglesRadiiAndPivots() {
+        float[] values = new float[9];
+        for (float arc : ARCS) {
+            WheelGeometry geometry = new WheelGeometry(7, arc);
+            for (float projectionY : PROJECTION_YS) {
+                geometry.setProjectionY(projectionY);
+                float radius = geometry.getWheelRadius();
+                float cameraDistance = geometry.getCameraDistance();
+                float maxDeg = geometry.maxSlotDeg();
+                for (float[] pivot : PIVOTS) {
+                    for (float deg = -maxDeg; deg <= maxDeg; deg += 2.5f) {
+                        double[] expected = ReferenceCamera.wheelMatrix(deg, radius, cameraDistance,
+                                pivot[0], pivot[1]);
+                        WheelProjection.getMatrixValues(deg, radius, cameraDistance,
+                                pivot[0], pivot[1], values);
+                        String where = "arc " + arc + ", projectionY " + projectionY
+                                + ", pivot " + pivot[0] + "," + pivot[1] + ", deg " + deg;
+                        assertMatrixEquals(where, expected, values);
+                        assertMapsLikeCamera(where, expected, values, pivot[0], pivot[1],
+                                projectionY);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void pivotIsTheCenterOfTheTransform() {
+        // at 0° the item is only scaled, around the pivot.
+        float[] values = new float[9];
+        float radius = 200f, cameraDistance = 800f;
+        float pivotX = 120f, pivotY = 30f;
+        WheelProjection.getMatrixValues(0f, radius, cameraDistance, pivotX, pivotY, values);
+        float[] mapped = map(values, pivotX, pivotY);
+        assertEquals(pivotX, mapped[0], 1e-3f);
+        assertEquals(pivotY, mapped[1], 1e-3f);
+
+        float scale = cameraDistance / (cameraDistance - radius);
+        mapped = map(values, pivotX + 10f, pivotY + 10f);
+        assertEquals(pivotX + 10f * scale, mapped[0], 1e-3f);
+        assertEquals(pivotY + 10f * scale, mapped[1], 1e-3f);
+    }
+
+    @Test
+    public void pivotTranslationsComposeAroundCameraMatrix() {
+        // postTranslate(p) * camera * preTranslate(-p): the pivot point goes where camera puts origin.
+        float[] values = new float[9];
+        float[] noPivot = new float[9];
+        float radius = 150f, cameraDistance = 600f, deg = 33f;
+        float pivotX = 90f, pivotY = -40f;
+        WheelProjection.getMatrixValues(deg, radius, cameraDistance, pivotX, pivotY, values);
+        WheelProjection.getMatrixValues(deg, radius, cameraDistance, 0f, 0f, noPivot);
+        for (float dx = -50f; dx <= 50f; dx += 25f) {
+            for (float dy = -20f; dy <= 20f; dy += 10f) {
+                float[] withPivot = map(values, pivotX + dx, pivotY + dy);
+                float[] atOrigin = map(noPivot, dx, dy);
+                assertEquals(atOrigin[0] + pivotX, withPivot[0], 1e-3f);
+                assertEquals(atOrigin[1] + pivotY, withPivot[1], 1e-3f);
+            }
+        }
+    }
+
+    @Test
+    public void viewTransformMatchesTheMatrixAtTheItemCenter() {
+        float[] values = new float[9];
+        float[] view = new float[2];
+        float pivotX = 240f, pivotY = 36.5f; // the child's center
+        for (float arc : ARCS) {
+            WheelGeometry geometry = new WheelGeometry(7, arc);
+            for (float projectionY : PROJECTION_YS) {
+                geometry.setProjectionY(projectionY);
+                float radius = geometry.getWheelRadius();
+                float cameraDistance = geometry.getCameraDistance();
+                float maxDeg = geometry.maxSlotDeg();
+                for (float deg = -maxDeg; deg <= maxDeg; deg += 2.5f) {
+                    String where = "arc " + arc + ", projectionY " + projectionY + ", deg " + deg;
+                    WheelProjection.getMatrixValues(deg, radius, cameraDistance, pivotX, pivotY,
+                            values);
+                    WheelProjection.getViewTransform(deg, radius, cameraDistance, view);
+
+                    float[] center = map(values, pivotX, pivotY);
+                    assertEquals(where, center[1] - pivotY, view[WheelProjection.VIEW_TRANSLATION_Y],
+                            1e-3f);
+                    // the row through the center keeps its depth, so it is scaled linearly.
+                    float rowScale = map(values, pivotX + 100f, pivotY)[0] - center[0];
+                    assertEquals(where, rowScale / 100f / geometry.getCenterScale(),
+                            view[WheelProjection.VIEW_SCALE], 1e-4f);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void viewTransformKeepsTheCenteredChildAndReachesTheEdges() {
+        float[] view = new float[2];
+        for (float arc : ARCS) {
+            WheelGeometry geometry = new WheelGeometry(7, arc);
+            geometry.setProjectionY(400f);
+            float radius = geometry.getWheelRadius();
+            float cameraDistance = geometry.getCameraDistance();
+
+            WheelProjection.getViewTransform(0f, radius, cameraDistance, view);
+            assertEquals(1f, view[WheelProjection.VIEW_SCALE], 1e-6f);
+            assertEquals(0f, view[WheelProjection.VIEW_TRANSLATION_Y], 1e-4f);
+
+            // camera's y axis is opposite to screen's, a positive angle goes up.
+            WheelProjection.getViewTransform(arc / 2, radius, cameraDistance, view);
+            assertEquals("arc " + arc, -400f, view[WheelProjection.VIEW_TRANSLATION_Y], 0.05f);
+            WheelProjection.getViewTransform(-arc / 2, radius, cameraDistance, view);
+            assertEquals("arc " + arc, 400f, view[WheelProjection.VIEW_TRANSLATION_Y], 0.05f);
+        }
+    }
+
+    private static void assertMatrixEquals(String where, double[] expected, float[] actual) {
+        for (int i = 0; i < 9; i++) {
+            // translations are pixels, float loses about 1e-4px when the pivot is far away.
+            boolean pixels = i == WheelProjection.MTRANS_X || i == WheelProjection.MTRANS_Y;
+            double tolerance = 1e-4 * Math.abs(expected[i]) + (pixels ? 1e-3 : 1e-6);
+            assertEquals(where + ", value " + i, expected[i], actual[i], tolerance);
+        }
+    }
+
+    // corners of an item around the pivot land on the same pixels.
+    private static void assertMapsLikeCamera(String where, double[] expected, float[] actual,
+                                             float pivotX, float pivotY, float projectionY) {
+        float halfWidth = projectionY, halfHeight = projectionY / 4f;
+        for (int sx = -1; sx <= 1; sx += 2) {
+            for (int sy = -1; sy <= 1; sy += 2) {
+                float x = pivotX + sx * halfWidth, y = pivotY + sy * halfHeight;
+                double w = expected[6] * x + expected[7] * y + expected[8];
+                float[] mapped = map(actual, x, y);
+                assertEquals(where, (expected[0] * x + expected[1] * y + expected[2]) / w,
+                        mapped[0], 0.01);
+                assertEquals(where, (expected[3] * x + expected[4] * y + expected[5]) / w,
+                        mapped[1], 0.01);
+            }
+        }
+    }
+
+    private static float[] map(float[] m, float x, float y) {
+        float w = m[6] * x + m[7] * y + m[8];
+        return new float[]{(m[0] * x + m[1] * y + m[2]) / w, (m[3] * x + m[4] * y + m[5]) / w};
+    }
+
+    /**
+     * Sk3DView + SkCamera3D，在double下计算。矩阵按android.graphics.Matrix的顺序排列。
+     */
+    private static final class ReferenceCamera {
+
+        /**
+         * camera.setLocation(0, 0, -cameraDistance / 72);
+         * camera.rotateX(deg);
+         * camera.translate(0, 0, -wheelRadius);
+         * camera.getMatrix(matrix);
+         * matrix.preTranslate(-pivotX, -pivotY);
+         * matrix.postTranslate(pivotX, pivotY);
+         */
+        static double[] wheelMatrix(double deg, double wheelRadius, double cameraDistance,
+                                    double pivotX, double pivotY) {
+            // setLocation is in inches, Sk3DView multiplies it by 72.
+            double[] location = {0, 0, -cameraDistance};
+            double[] observer = {0, 0, location[2]};
+
+            // Sk3DView: the 4x4 matrix is pre-concatenated, rotateX then translate.
+            double radian = Math.toRadians(deg);
+            double c = Math.cos(radian), s = Math.sin(radian);
+            double[][] rotate = {{1, 0, 0, 0}, {0, c, -s, 0}, {0, s, c, 0}, {0, 0, 0, 1}};
+            double[][] translate = {{1, 0, 0, 0}, {0, 1, 0, 0}, {0, 0, 1, -wheelRadius},
+                    {0, 0, 0, 1}};
+            double[][] m44 = multiply44(rotate, translate);
+
+            // SkPatch3D: u = (1, 0, 0), v = (0, -1, 0), origin = (0, 0, 0), transformed by m44.
+            double[] u = mapVector(m44, 1, 0, 0);
+            double[] v = mapVector(m44, 0, -1, 0);
+            double[] origin = {m44[0][3], m44[1][3], m44[2][3]};
+
+            // SkCamera3D::doUpdate, axis = (0, 0, 1), zenith = (0, -1, 0).
+            double[] axis = {0, 0, 1};
+            double[] zenith = {0, -1, 0};
+            double[] cross = {
+                    axis[1] * zenith[2] - axis[2] * zenith[1],
+                    axis[2] * zenith[0] - axis[0] * zenith[2],
+                    axis[0] * zenith[1] - axis[1] * zenith[0]};
+            double x = observer[0], y = observer[1], z = observer[2];
+            double[] orien = {
+                    x * axis[0] - z * cross[0], x * axis[1] - z * cross[1], x * axis[2] - z * cross[2],
+                    y * axis[0] - z * zenith[0], y * axis[1] - z * zenith[1], y * axis[2] - z * zenith[2],
+                    axis[0], axis[1], axis[2]};
+
+            // SkCamera3D::patchToMatrix
+            double[] diff = {origin[0] - location[0], origin[1] - location[1],
+                    origin[2] - location[2]};
+            double dot = dot(diff, orien, 6);
+            double[] m = new double[9];
+            m[WheelProjection.MSCALE_X] = dot(u, orien, 0) / dot;
+            m[WheelProjection.MSKEW_Y] = dot(u, orien, 3) / dot;
+            m[WheelProjection.MPERSP_0] = dot(u, orien, 6) / dot;
+            m[WheelProjection.MSKEW_X] = dot(v, orien, 0) / dot;
+            m[WheelProjection.MSCALE_Y] = dot(v, orien, 3) / dot;
+            m[WheelProjection.MPERSP_1] = dot(v, orien, 6) / dot;
+            m[WheelProjection.MTRANS_X] = dot(diff, orien, 0) / dot;
+            m[WheelProjection.MTRANS_Y] = dot(diff, orien, 3) / dot;
+            m[WheelProjection.MPERSP_2] = 1;
+
+            double[] pre = {1, 0, -pivotX, 0, 1, -pivotY, 0, 0, 1};
+            double[] post = {1, 0, pivotX, 0, 1, pivotY, 0, 0, 1};
+            return multiply33(post, multiply33(m, pre));
+        }
+
+        private static double dot(double[] a, double[] b, int offset) {
+            return a[0] * b[offset] + a[1] * b[offset + 1] + a[2] * b[offset + 2];
+        }
+
+        private static double[] mapVector(double[][] m, double x, double y, double z) {
+            return new double[]{
+                    m[0][0] * x + m[0][1] * y + m[0][2] * z,
+                    m[1][0] * x + m[1][1] * y + m[1][2] * z,
+                    m[2][0] * x + m[2][1] * y + m[2][2] * z};
+        }
+
+        private static double[][] multiply44(double[][] a, double[][] b) {
+            double[][] r = new double[4][4];
+            for (int i = 0; i < 4; i++) {
+                for (int j = 0; j < 4; j++) {
+                    for (int k = 0; k < 4; k++) {
+                        r[i][j] += a[i][k] * b[k][j];
+                    }
+                }
+            }
+            return r;
+        }
+
+        private static double[] multiply33(double[] a, double[] b) {
+            double[] r = new double[9];
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 3; j++) {
+                    for (int k = 0; k < 3; k++) {
+                        r[i * 3 + j] += a[i * 3 + k] * b[k * 3 + j];
+                    }
+                }
+            }
+            return r;
+        }
+    }
+}
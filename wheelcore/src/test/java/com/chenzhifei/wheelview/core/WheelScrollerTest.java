@@ -0,0 +1,270 @@
+package com.chenzhifei.wheelview.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WheelScrollerTest {
+
+    private static final float FRAME = WheelScroller.REFERENCE_FRAME_SECONDS;
+    private static final float EPSILON = 1e-3f;
+
+    private WheelGeometry geometry;
+    private WheelScroller scroller;
+    private float inter;
+
+    @Before
+    public void setUp() {
+        geometry = new WheelGeometry(7, 130f); // interItemDeg 16.25
+        geometry.setItemCount(10);
+        geometry.setProjectionY(300f);
+        scroller = new WheelScroller(geometry);
+        inter = geometry.getInterItemDeg();
+    }
+
+    @Test
+    public void cyclicDragWrapsIntoOnePeriod() {
+        geometry.setCyclic(true);
+        float periodDeg = geometry.getPeriodDeg();
+
+        scroller.updateY(geometry.toDistanceY(23f * inter));
+        assertInPeriod(periodDeg);
+        assertEquals(3, geometry.nearestIndex(scroller.getAccumDeg()));
+        assertEquals(3f * inter, scroller.getAccumDeg(), EPSILON);
+
+        scroller.updateY(geometry.toDistanceY(-5f * inter));
+        assertInPeriod(periodDeg);
+        assertEquals(8, geometry.nearestIndex(scroller.getAccumDeg()));
+    }
+
+    @Test
+    public void cyclicAnimationsKeepTheirTargetAcrossTheWrap() {
+        geometry.setCyclic(true);
+        scroller.scrollToIndex(1);
+        scroller.scrollTo(8, 1f); // the shorter way is backwards, across index 0.
+        assertEquals(8, scroller.getPredictedIndex());
+        assertTrue(runToIdle() > 1);
+        assertInPeriod(geometry.getPeriodDeg());
+        assertEquals(8f * inter, scroller.getAccumDeg(), EPSILON);
+
+        scroller.setPhysics(WheelScroller.PHYSICS_ANALYTIC);
+        scroller.fling(geometry.toDistanceY(-25f * inter)
+                / WheelScroller.DEFAULT_FLING_TIME_CONSTANT);
+        int predicted = scroller.getPredictedIndex();
+        runToIdle();
+        assertInPeriod(geometry.getPeriodDeg());
+        assertEquals(predicted, geometry.nearestIndex(scroller.getAccumDeg()));
+        assertEquals(0f, geometry.nearestOffset(scroller.getAccumDeg()), EPSILON);
+    }
+
+    @Test
+    public void retargetedFlingLandsOnTheNewIndex() {
+        geometry.setItemCount(100);
+        scroller.setPhysics(WheelScroller.PHYSICS_ANALYTIC);
+        scroller.scrollToIndex(5);
+        scroller.fling(geometry.toDistanceY(15f * inter) / WheelScroller.DEFAULT_FLING_TIME_CONSTANT);
+        assertEquals(20, scroller.getPredictedIndex());
+        for (int i = 0; i < 5; i++) {
+            scroller.step(FRAME);
+        }
+        // 3 items inserted between the center and the landing item.
+        geometry.setItemCount(103);
+        scroller.retargetFling(23);
+        assertEquals(23, scroller.getPredictedIndex());
+        assertEquals(WheelScroller.STATE_ANALYTIC_FLING, scroller.getState());
+        runToIdle();
+        assertEquals(geometry.degOfIndex(23), scroller.getAccumDeg(), EPSILON);
+    }
+
+    @Test
+    public void retargetIsIgnoredWhenNotFlinging() {
+        scroller.scrollToIndex(2);
+        scroller.retargetFling(7);
+        assertEquals(WheelScroller.STATE_IDLE, scroller.getState());
+        assertEquals(geometry.degOfIndex(2), scroller.getAccumDeg(), EPSILON);
+    }
+
+    @Test
+    public void scrollToAnimatesAtMostTwoWheelsOfItems() {
+        geometry.setItemCount(2000);
+        int maxAnimatedItems = 2 * geometry.getSlotCount();
+
+        scroller.scrollTo(1000, 10f);
+        assertEquals((1000 - maxAnimatedItems) * inter, scroller.getAccumDeg(), EPSILON);
+        assertEquals(1000, scroller.getPredictedIndex());
+        runToIdle();
+        assertEquals(geometry.degOfIndex(1000), scroller.getAccumDeg(), EPSILON);
+
+        scroller.scrollTo(0, 10f);
+        assertEquals(maxAnimatedItems * inter, scroller.getAccumDeg(), EPSILON);
+        runToIdle();
+        assertEquals(0f, scroller.getAccumDeg(), EPSILON);
+    }
+
+    @Test
+    public void scrollToEndsWithinMaxDuration() {
+        geometry.setItemCount(2000);
+        scroller.scrollTo(1999, 0.3f);
+        assertEquals(WheelScroller.FRAME_MOVED, scroller.step(0.29f));
+        assertTrue(scroller.getAccumDeg() < geometry.getMaxSlideDeg());
+        assertEquals(WheelScroller.FRAME_SETTLED, scroller.step(0.02f));
+        assertEquals(geometry.getMaxSlideDeg(), scroller.getAccumDeg(), 0.01f); // float ulp at 32k°
+        assertEquals(WheelScroller.STATE_IDLE, scroller.getState());
+    }
+
+    @Test
+    public void steppedFlingStopsOnTheLastItem() {
+        scroller.fling(geometry.toDistanceY(1000f) * 60f);
+        runToIdle();
+        assertEquals(geometry.getMaxSlideDeg(), scroller.getAccumDeg(), EPSILON);
+
+        scroller.fling(-geometry.toDistanceY(1000f) * 60f);
+        runToIdle();
+        assertEquals(0f, scroller.getAccumDeg(), EPSILON);
+    }
+
+    @Test
+    public void overscrollIsResistedOnlyOutsideTheEdges() {
+        float lower = geometry.toDistanceY(geometry.getMaxSlideDeg()); // distanceY of the last item
+
+        // at the first item, pulling down overscrolls at 1/4.
+        scroller.updateY(40f);
+        assertEquals(10f, scroller.getDistanceY(), EPSILON);
+        // coming back costs the same 40px, the rest moves freely.
+        scroller.updateY(-100f);
+        assertEquals(-60f, scroller.getDistanceY(), EPSILON);
+
+        // mirrored: at the last item, pushing up overscrolls at 1/4.
+        scroller.setDistanceY(lower);
+        scroller.updateY(-40f);
+        assertEquals(lower - 10f, scroller.getDistanceY(), EPSILON);
+        scroller.updateY(100f);
+        assertEquals(lower + 60f, scroller.getDistanceY(), EPSILON);
+    }
+
+    @Test
+    public void moveFromOutsideAcrossBothEdges() {
+        float lower = geometry.toDistanceY(geometry.getMaxSlideDeg());
+
+        // 5px overscrolled before the first item: 20px back, -lower free, the rest resisted.
+        scroller.setDistanceY(5f);
+        scroller.updateY(-20f + lower - 80f);
+        assertEquals(lower - 20f, scroller.getDistanceY(), EPSILON);
+
+        // and all the way back, mirrored.
+        scroller.updateY(80f - lower + 20f);
+        assertEquals(5f, scroller.getDistanceY(), EPSILON);
+    }
+
+    @Test
+    public void manySmallMovesEqualOneSummedMove() {
+        float lower = geometry.toDistanceY(geometry.getMaxSlideDeg());
+        float[] starts = {0f, 30f, -2f, lower / 2f, lower, lower - 30f};
+        float[] totals = {150f, -150f, 2f * lower, -2f * lower, 33.3f, -33.3f};
+        WheelScroller summed = new WheelScroller(geometry);
+        for (float start : starts) {
+            for (float total : totals) {
+                scroller.setDistanceY(start);
+                for (int i = 0; i < 1000; i++) {
+                    scroller.updateY(total / 1000f);
+                }
+                summed.setDistanceY(start);
+                summed.updateY(total);
+                // float rounding of 1000 additions near 1000px, well below a pixel.
+                assertEquals("start " + start + ", moved " + total,
+                        summed.getDistanceY(), scroller.getDistanceY(), 0.1f);
+            }
+        }
+    }
+
+    @Test
+    public void updateYRemembersTheEventTimeForTheNextFling() {
+        scroller.updateY(-10f, 1000000000L);
+        assertEquals(1000000000L, scroller.getLastInputTimeNanos());
+        scroller.fling(-2000f);
+        assertEquals(0L, scroller.getLastInputTimeNanos());
+        float before = scroller.getAccumDeg();
+        // the first frame integrates from the event time, 8ms, not a whole reference frame.
+        scroller.doFrame(1008000000L);
+        float expected = before + geometry.toDeg(-2000f * 0.008f);
+        assertEquals(expected, scroller.getAccumDeg(), EPSILON);
+    }
+
+    @Test
+    public void cyclicMutationJustBeforeTheSeamKeepsTheCenteredItem() {
+        geometry.setCyclic(true);
+        geometry.setItemCount(60);
+        // item 0 centered from the end of the lap.
+        scroller.setDistanceY(geometry.toDistanceY(59.8f * inter));
+
+        mutate(60, 55, 0, 0); // remove(10, 5): item 0 does not move.
+        assertEquals(0, geometry.nearestIndex(scroller.getAccumDeg()));
+        assertEquals(54.8f * inter, scroller.getAccumDeg(), EPSILON);
+
+        mutate(55, 58, 0, 3); // insert(0, 3): the old item 0 is now item 3.
+        assertEquals(3, geometry.nearestIndex(scroller.getAccumDeg()));
+        assertEquals(2.8f * inter, scroller.getAccumDeg(), EPSILON);
+
+        mutate(58, 56, 3, 3); // remove(56, 2), the last items before the seam.
+        assertEquals(3, geometry.nearestIndex(scroller.getAccumDeg()));
+        assertInPeriod(geometry.getPeriodDeg());
+    }
+
+    @Test
+    public void cyclicMutationJustAfterTheSeamKeepsTheCenteredItem() {
+        geometry.setCyclic(true);
+        geometry.setItemCount(60);
+        scroller.setDistanceY(geometry.toDistanceY(0.2f * inter)); // item 0, past the seam.
+
+        mutate(60, 55, 0, 0); // remove(55, 5), the items before the seam.
+        assertEquals(0, geometry.nearestIndex(scroller.getAccumDeg()));
+        assertEquals(0.2f * inter, scroller.getAccumDeg(), EPSILON);
+
+        mutate(55, 58, 0, 3); // insert(0, 3)
+        assertEquals(3, geometry.nearestIndex(scroller.getAccumDeg()));
+        assertEquals(3.2f * inter, scroller.getAccumDeg(), EPSILON);
+
+        scroller.setDistanceY(geometry.toDistanceY(57.6f * inter)); // item 58 -> 0 at the seam.
+        mutate(58, 61, 0, 0); // insert(58, 3), at the seam: item 0 does not move.
+        assertEquals(0, geometry.nearestIndex(scroller.getAccumDeg()));
+        assertEquals(60.6f * inter, scroller.getAccumDeg(), EPSILON);
+    }
+
+    @Test
+    public void mutationKeepsTheFlingGoing() {
+        geometry.setItemCount(60);
+        scroller.setDistanceY(geometry.toDistanceY(10f * inter));
+        scroller.fling(-3000f);
+        scroller.step(FRAME);
+        float velocity = scroller.getYVelocity();
+        float offsetDeg = scroller.getAccumDeg() - 10f * inter;
+
+        mutate(60, 62, 10, 12); // insert(0, 2)
+        assertEquals(WheelScroller.STATE_SLIDING, scroller.getState());
+        assertEquals(velocity, scroller.getYVelocity(), 0f);
+        assertEquals(12f * inter + offsetDeg, scroller.getAccumDeg(), EPSILON);
+    }
+
+    // what WheelView.onItemRangeMutated does for the scroller.
+    private void mutate(int oldCount, int newCount, int oldIndex, int newIndex) {
+        geometry.setItemCount(newCount);
+        scroller.onItemsMutated(oldCount, oldIndex, newIndex);
+    }
+
+    private void assertInPeriod(float periodDeg) {
+        float accumDeg = scroller.getAccumDeg();
+        assertTrue("accumDeg " + accumDeg, accumDeg >= 0f && accumDeg < periodDeg);
+    }
+
+    // @return the number of frames.
+    private int runToIdle() {
+        int frames = 0;
+        while (scroller.isAnimating()) {
+            scroller.step(FRAME);
+            assertTrue("not settled", ++frames < 10000);
+        }
+        return frames;
+    }
+}